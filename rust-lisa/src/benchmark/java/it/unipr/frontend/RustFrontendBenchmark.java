@@ -0,0 +1,212 @@
+package it.unipr.frontend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.program.Program;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import org.junit.Test;
+
+/**
+ * Regression benchmarks of the front-end on large synthetic crates, checking
+ * that the front-end time grows linearly with the size of the input. Their
+ * results depend on the machine, so they are not part of the unit tests: run
+ * them with {@code ./gradlew benchmark}.
+ */
+public class RustFrontendBenchmark {
+
+	private static final int SMALL = 2_500;
+	private static final int LARGE = 10_000;
+
+	private static final int SHALLOW = 100;
+	private static final int DEEP = 400;
+
+	private static final int FUNCTIONS = 4_000;
+
+	private static final int WARM_UP_FUNCTIONS = 20;
+
+	private static Path crate(int items) throws IOException {
+		StringBuilder source = new StringBuilder();
+		for (int i = 0; i < items / 2; i++) {
+			source.append("struct S").append(i).append(" {\n    x: i32,\n}\n\n");
+			source.append("fn f").append(i).append("() {\n    let _x = ").append(i).append(";\n}\n\n");
+		}
+
+		return file(String.valueOf(items), source.toString());
+	}
+
+	private static Path file(String name, String source) throws IOException {
+		Path file = Files.createTempFile("rust-lisa-bench-" + name + "-", ".rs");
+		file.toFile().deleteOnExit();
+		Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static Path nested(int depth) throws IOException {
+		StringBuilder source = new StringBuilder("fn main() {\n    let mut x = 0;\n");
+		for (int i = 0; i < depth; i++)
+			source.append("if x < ").append(i).append(" {\nx = -x + !!").append(i).append(";\n");
+		for (int i = 0; i < depth; i++)
+			source.append("}\n");
+		source.append("}\n");
+		return file("nested-" + depth, source.toString());
+	}
+
+	private static Path functions(int functions) throws IOException {
+		StringBuilder source = new StringBuilder();
+		for (int i = 0; i < functions; i++) {
+			source.append("fn f").append(i).append("(n: i32) {\n    let mut x = n;\n");
+			for (int j = 0; j < 10; j++)
+				source.append("    if x > ").append(j).append(" {\n        x = x - ").append(j)
+						.append(";\n    } else {\n        x = x * 2 + 1;\n    }\n");
+			source.append("    while x > 0 {\n        x = x - 1;\n    }\n}\n\n");
+		}
+
+		return file("functions-" + functions, source.toString());
+	}
+
+	private static long time(Path file) throws IOException {
+		// deeply nested inputs need a deep stack, both to parse and to visit
+		long[] elapsed = new long[1];
+		IOException[] failure = new IOException[1];
+		Thread thread = new Thread(null, () -> {
+			long start = System.nanoTime();
+			try {
+				RustFrontend.processFile(file.toString());
+			} catch (IOException e) {
+				failure[0] = e;
+			}
+			elapsed[0] = System.nanoTime() - start;
+		}, "rust-lisa-bench", 256L << 20);
+
+		thread.start();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (failure[0] != null)
+			throw failure[0];
+		return elapsed[0];
+	}
+
+	private static long time(Path crate, int items) throws IOException {
+		long start = System.nanoTime();
+		Program program = RustFrontend.processFile(crate.toString());
+		long elapsed = System.nanoTime() - start;
+
+		// the main unit plus one unit per struct
+		assertEquals(items / 2 + 1, program.getUnits().size());
+		return elapsed;
+	}
+
+	/**
+	 * Parses a file in this JVM, after warming up the parsers if the second
+	 * argument is {@code warm}, and writes the warm-up and the parse times in
+	 * nanoseconds to the file named by the third argument.
+	 */
+	public static void main(String[] args) throws IOException {
+		long warmUp = args[1].equals("warm") ? RustParsers.warmUp() : 0;
+		RustCrate crate = RustFrontend.processFiles(Collections.singleton(Paths.get(args[0])), Runnable::run);
+		Files.write(Paths.get(args[2]),
+				(warmUp + " " + crate.getTotalParseTime()).getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static long[] firstParse(Path file, boolean warm) throws IOException, InterruptedException {
+		Path times = Files.createTempFile("rust-lisa-bench-times-", ".txt");
+		times.toFile().deleteOnExit();
+
+		// a fresh JVM, where nothing has been parsed yet
+		Process process = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+				"-cp", System.getProperty("java.class.path"), RustFrontendBenchmark.class.getName(),
+				file.toString(), warm ? "warm" : "cold", times.toString()).redirectErrorStream(true).start();
+		String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+		assertEquals(output, 0, process.waitFor());
+
+		String[] parsed = new String(Files.readAllBytes(times), StandardCharsets.US_ASCII).split(" ");
+		return new long[] { Long.parseLong(parsed[0]), Long.parseLong(parsed[1]) };
+	}
+
+	@Test
+	public void testFrontendTimeIsLinearInItems() throws IOException {
+		Path small = crate(SMALL);
+		Path large = crate(LARGE);
+
+		// warm-up
+		time(small, SMALL);
+
+		long smallTime = time(small, SMALL);
+		long largeTime = time(large, LARGE);
+		double ratio = (double) largeTime / smallTime;
+
+		// linear growth gives a ratio of about 4, quadratic growth of about 16
+		assertTrue("Frontend time grows more than linearly: " + SMALL + " items in " + smallTime / 1_000_000
+				+ " ms, " + LARGE + " items in " + largeTime / 1_000_000 + " ms", ratio < 10);
+	}
+
+	@Test
+	public void testFrontendTimeIsLinearInNesting() throws IOException {
+		Path shallow = nested(SHALLOW);
+		Path deep = nested(DEEP);
+
+		// warm-up
+		time(shallow);
+
+		long shallowTime = time(shallow);
+		long deepTime = time(deep);
+		double ratio = (double) deepTime / shallowTime;
+
+		// calling getText() on the nested subtrees gives a quadratic growth
+		assertTrue("Frontend time grows more than linearly: depth " + SHALLOW + " in " + shallowTime / 1_000_000
+				+ " ms, depth " + DEEP + " in " + deepTime / 1_000_000 + " ms", ratio < 10);
+	}
+
+	@Test
+	public void testParallelCfgs() throws IOException {
+		Path crate = functions(FUNCTIONS);
+		// parses on the calling thread, so that only CFG building differs
+		Executor direct = Runnable::run;
+		RustFrontendOptions sequential = new RustFrontendOptions();
+		RustFrontendOptions parallel = new RustFrontendOptions().setParallelCfgs(true);
+
+		// warm-up
+		RustFrontend.processFiles(Collections.singleton(crate), direct, sequential);
+		RustFrontend.processFiles(Collections.singleton(crate), direct, parallel);
+
+		long start = System.nanoTime();
+		Program first = RustFrontend.processFiles(Collections.singleton(crate), direct, sequential).getProgram();
+		long sequentialTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		Program second = RustFrontend.processFiles(Collections.singleton(crate), direct, parallel).getProgram();
+		long parallelTime = System.nanoTime() - start;
+
+		assertEquals(FUNCTIONS, first.getCFGs().size());
+		assertEquals(first.getCFGs().toString(), second.getCFGs().toString());
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		assertTrue("Parallel CFG building does not speed up the front-end on " + FUNCTIONS + " functions: "
+				+ sequentialTime / 1_000_000 + " ms sequential, " + parallelTime / 1_000_000 + " ms parallel on "
+				+ cores + " cores", cores < 2 || parallelTime < sequentialTime);
+	}
+
+	@Test
+	public void testWarmUp() throws IOException, InterruptedException {
+		// not in the warm-up corpus
+		Path file = functions(WARM_UP_FUNCTIONS);
+
+		long[] cold = firstParse(file, false);
+		long[] warm = firstParse(file, true);
+
+		assertTrue("Warm-up does not speed up the first parse of " + WARM_UP_FUNCTIONS + " functions: "
+				+ cold[1] / 1_000_000 + " ms cold, " + warm[1] / 1_000_000 + " ms after a " + warm[0] / 1_000_000
+				+ " ms warm-up", warm[1] < cold[1]);
+	}
+}
@@ -6,6 +6,9 @@ import it.unive.lisa.LiSA;
 import it.unive.lisa.LiSAConfiguration;
 import it.unive.lisa.program.Program;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * RustLiSA static analyzer build upon LiSA.
@@ -17,13 +20,16 @@ public class RustLiSA {
 	/**
 	 * RustLiSA entry point.
 	 * 
-	 * @param args arguments
+	 * @param args arguments: the Rust file to analyze, or the root directory
+	 *                 of the crate to analyze
 	 * 
 	 * @throws AnalysisException if anything goes wrong during the analysis
 	 * @throws IOException       if anything goes wrong during reading the file
 	 */
 	public static void main(String[] args) throws AnalysisException, IOException {
-		Program program = RustFrontend.processFile(args[0]);
+		Path path = Paths.get(args[0]);
+		Program program = Files.isDirectory(path) ? RustFrontend.processCrate(path).getProgram()
+				: RustFrontend.processFile(args[0]);
 
 		LiSAConfiguration conf = new LiSAConfiguration();
 		conf.setDumpCFGs(true)
@@ -2,7 +2,6 @@ package it.unipr.cfg.type;
 
 import it.unive.lisa.type.BooleanType;
 import it.unive.lisa.type.Type;
-import it.unive.lisa.type.Untyped;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -16,6 +15,8 @@ public class RustBooleanType implements BooleanType, RustType {
 
 	private static final RustBooleanType INSTANCE = new RustBooleanType();
 
+	private static final int ID = RustTypeLattice.primitiveId(RustBooleanType.class);
+
 	/**
 	 * Yields the singleton instance based on mutability.
 	 * 
@@ -28,16 +29,19 @@ public class RustBooleanType implements BooleanType, RustType {
 	private RustBooleanType() {
 	}
 
+	@Override
+	public int getTypeId() {
+		return ID;
+	}
+
 	@Override
 	public boolean canBeAssignedTo(Type other) {
-		return other instanceof RustBooleanType || other instanceof Untyped;
+		return RustTypeLattice.canBeAssignedTo(this, other);
 	}
 
 	@Override
 	public Type commonSupertype(Type other) {
-		if (other instanceof RustBooleanType)
-			return other;
-		return Untyped.INSTANCE;
+		return RustTypeLattice.commonSupertype(this, other);
 	}
 
 	@Override
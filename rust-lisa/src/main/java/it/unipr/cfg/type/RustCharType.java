@@ -1,7 +1,6 @@
 package it.unipr.cfg.type;
 
 import it.unive.lisa.type.Type;
-import it.unive.lisa.type.Untyped;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -15,6 +14,8 @@ public class RustCharType implements RustType {
 
 	private static final RustCharType INSTANCE = new RustCharType();
 
+	private static final int ID = RustTypeLattice.primitiveId(RustCharType.class);
+
 	/**
 	 * Yields the singleton instance based on mutability.
 	 * 
@@ -27,18 +28,21 @@ public class RustCharType implements RustType {
 	private RustCharType() {
 	}
 
+	@Override
+	public int getTypeId() {
+		return ID;
+	}
+
 	@Override
 	public boolean canBeAssignedTo(Type other) {
-		return other instanceof RustCharType || other instanceof Untyped;
+		return RustTypeLattice.canBeAssignedTo(this, other);
 	}
 
 	@Override
 	public Type commonSupertype(Type other) {
 		// Rust cast ought to be explicit by design
 		// https://doc.rust-lang.org/rust-by-example/types/cast.html
-		if (other instanceof RustCharType)
-			return other;
-		return Untyped.INSTANCE;
+		return RustTypeLattice.commonSupertype(this, other);
 	}
 
 	@Override
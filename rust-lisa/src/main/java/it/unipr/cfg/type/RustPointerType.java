@@ -6,9 +6,7 @@ import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
 import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Objects;
-import java.util.Set;
 
 /**
  * Unique instance of the Rust pointer type.
@@ -18,11 +16,6 @@ import java.util.Set;
  */
 public class RustPointerType implements PointerType, RustType {
 
-	/**
-	 * Collection of all pointer types.
-	 */
-	private static final Set<RustPointerType> INSTANCES = new HashSet<>();
-
 	/**
 	 * Yields the first instance that matches pointer type requested or adds it
 	 * if not present.
@@ -32,17 +25,14 @@ public class RustPointerType implements PointerType, RustType {
 	 * @return the first {@link RustPointerType} inserted of the same kind
 	 */
 	public static RustPointerType lookup(RustPointerType type) {
-		if (!INSTANCES.contains(type))
-			INSTANCES.add(type);
-
-		return INSTANCES.stream().filter(x -> x.equals(type)).findFirst().get();
+		return TypeRegistry.current().intern(type, registry -> new RustPointerType(type, registry));
 	}
 
 	/**
 	 * Clear all instances of Rust pointer types.
 	 */
 	public static void clearAll() {
-		INSTANCES.clear();
+		TypeRegistry.current().clearPointers();
 	}
 
 	/**
@@ -51,15 +41,20 @@ public class RustPointerType implements PointerType, RustType {
 	 * @return all instances of a Rust pointer types
 	 */
 	public static Collection<Type> all() {
-		Collection<Type> result = new HashSet<>();
-		for (Type t : INSTANCES.toArray(new RustPointerType[0])) {
-			result.add(t);
-		}
-		return result;
+		return TypeRegistry.current().pointers();
 	}
 
 	private final Type innerType;
 	private final boolean mutable;
+	private final TypeRegistry registry;
+	private final long generation;
+	private final int id;
+
+	/**
+	 * Structural hash of this type, computed once since the type is
+	 * immutable.
+	 */
+	private final int hash;
 
 	/**
 	 * Constructor for {@link RustPointerType}.
@@ -71,10 +66,34 @@ public class RustPointerType implements PointerType, RustType {
 	public RustPointerType(Type innerType, boolean mutable) {
 		this.innerType = Objects.requireNonNull(innerType);
 		this.mutable = mutable;
+		this.registry = null;
+		this.generation = 0;
+		this.id = RustTypeLattice.UNREGISTERED;
+		this.hash = Objects.hash(innerType, mutable);
+	}
+
+	private RustPointerType(RustPointerType type, TypeRegistry registry) {
+		this.innerType = type.innerType;
+		this.mutable = type.mutable;
+		this.registry = registry;
+		this.generation = registry.getGeneration();
+		this.hash = type.hash;
+		this.id = registry.getLattice().register(this);
+	}
+
+	@Override
+	public int getTypeId() {
+		return id;
 	}
 
 	@Override
 	public boolean canBeAssignedTo(Type other) {
+		if (registry == null)
+			return isAssignableTo(other);
+		return registry.getLattice().canBeAssignedTo(this, other, this::isAssignableTo);
+	}
+
+	private boolean isAssignableTo(Type other) {
 		if (other instanceof RustPointerType)
 			return innerType.canBeAssignedTo(((RustPointerType) other).innerType)
 					&& ((RustPointerType) other).mutable == this.mutable;
@@ -83,6 +102,12 @@ public class RustPointerType implements PointerType, RustType {
 
 	@Override
 	public Type commonSupertype(Type other) {
+		if (registry == null)
+			return supertypeWith(other);
+		return registry.getLattice().commonSupertype(this, other, this::supertypeWith);
+	}
+
+	private Type supertypeWith(Type other) {
 		if (other instanceof RustPointerType)
 			if (innerType.canBeAssignedTo(((RustPointerType) other).innerType)
 					&& ((RustPointerType) other).mutable == this.mutable)
@@ -92,16 +117,12 @@ public class RustPointerType implements PointerType, RustType {
 
 	@Override
 	public Collection<Type> allInstances() {
-		Collection<Type> instances = new HashSet<>();
-		for (RustPointerType array : INSTANCES)
-			instances.add(array);
-
-		return instances;
+		return (registry == null ? TypeRegistry.current() : registry).pointers();
 	}
 
 	@Override
 	public int hashCode() {
-		return innerType.hashCode();
+		return hash;
 	}
 
 	@Override
@@ -117,6 +138,14 @@ public class RustPointerType implements PointerType, RustType {
 
 		RustPointerType other = (RustPointerType) obj;
 
+		if (hash != other.hash)
+			return false;
+
+		// instances owned by a registry are canonical: two distinct ones of the
+		// same generation are never equal
+		if (registry != null && registry == other.registry && generation == other.generation)
+			return false;
+
 		if (innerType == null) {
 			if (other.innerType != null)
 				return false;
@@ -2,7 +2,6 @@ package it.unipr.cfg.type;
 
 import it.unive.lisa.type.StringType;
 import it.unive.lisa.type.Type;
-import it.unive.lisa.type.Untyped;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -16,6 +15,8 @@ public class RustStrType implements StringType, RustType {
 
 	private static final RustStrType INSTANCE = new RustStrType();
 
+	private static final int ID = RustTypeLattice.primitiveId(RustStrType.class);
+
 	/**
 	 * Yields the singleton instance based on mutability.
 	 * 
@@ -28,18 +29,21 @@ public class RustStrType implements StringType, RustType {
 	private RustStrType() {
 	}
 
+	@Override
+	public int getTypeId() {
+		return ID;
+	}
+
 	@Override
 	public boolean canBeAssignedTo(Type other) {
-		return other instanceof RustStrType || other instanceof Untyped;
+		return RustTypeLattice.canBeAssignedTo(this, other);
 	}
 
 	@Override
 	public Type commonSupertype(Type other) {
 		// Rust cast ought to be explicit by design
 		// https://doc.rust-lang.org/rust-by-example/types/cast.html
-		if (other instanceof RustStrType)
-			return other;
-		return Untyped.INSTANCE;
+		return RustTypeLattice.commonSupertype(this, other);
 	}
 
 	@Override
@@ -9,4 +9,15 @@ import it.unive.lisa.type.Type;
  * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
  */
 public interface RustType extends Type {
+
+	/**
+	 * Yields the dense identifier of this type inside the
+	 * {@link RustTypeLattice}, or {@link RustTypeLattice#UNREGISTERED} if this
+	 * type is not part of any lattice.
+	 * 
+	 * @return the identifier of this type
+	 */
+	default int getTypeId() {
+		return RustTypeLattice.UNREGISTERED;
+	}
 }
@@ -0,0 +1,318 @@
+package it.unipr.cfg.type;
+
+import it.unipr.cfg.type.numeric.floating.RustF32Type;
+import it.unipr.cfg.type.numeric.floating.RustF64Type;
+import it.unipr.cfg.type.numeric.signed.RustI128Type;
+import it.unipr.cfg.type.numeric.signed.RustI16Type;
+import it.unipr.cfg.type.numeric.signed.RustI32Type;
+import it.unipr.cfg.type.numeric.signed.RustI64Type;
+import it.unipr.cfg.type.numeric.signed.RustI8Type;
+import it.unipr.cfg.type.numeric.signed.RustIsizeType;
+import it.unipr.cfg.type.numeric.unsigned.RustU128Type;
+import it.unipr.cfg.type.numeric.unsigned.RustU16Type;
+import it.unipr.cfg.type.numeric.unsigned.RustU32Type;
+import it.unipr.cfg.type.numeric.unsigned.RustU64Type;
+import it.unipr.cfg.type.numeric.unsigned.RustU8Type;
+import it.unipr.cfg.type.numeric.unsigned.RustUsizeType;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.Untyped;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Dense-id lattice of the Rust types, answering
+ * {@link Type#canBeAssignedTo(Type)} through a matrix of two bits per pair of
+ * types, and {@link Type#commonSupertype(Type)} through a table of the pairs
+ * queried so far. Primitive types have fixed identifiers shared by all
+ * the lattices, and their relations are precomputed. Types interned by a
+ * {@link TypeRegistry} are given an identifier by the lattice of that
+ * registry, and their relations are computed structurally the first time they
+ * are queried and then cached.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public final class RustTypeLattice {
+
+	/**
+	 * The identifier of the types that are not part of any lattice.
+	 */
+	public static final int UNREGISTERED = -1;
+
+	/**
+	 * The primitive types, in order of identifier.
+	 */
+	private static final List<Class<? extends RustType>> PRIMITIVES = Arrays.asList(
+			RustF32Type.class, RustF64Type.class,
+			RustI8Type.class, RustI16Type.class, RustI32Type.class, RustI64Type.class, RustI128Type.class,
+			RustIsizeType.class,
+			RustU8Type.class, RustU16Type.class, RustU32Type.class, RustU64Type.class, RustU128Type.class,
+			RustUsizeType.class,
+			RustBooleanType.class, RustCharType.class, RustStrType.class, RustUnitType.class);
+
+	/**
+	 * The identifier of {@link Untyped}, that follows the primitive ones.
+	 */
+	private static final int UNTYPED = PRIMITIVES.size();
+
+	/**
+	 * The first identifier given to non-primitive types.
+	 */
+	private static final int FIRST_COMPOSITE = UNTYPED + 1;
+
+	/**
+	 * Assignability among primitive types: bit {@code j} of entry {@code i}
+	 * is set if the primitive type {@code i} can be assigned to the type
+	 * {@code j}. Rust casts ought to be explicit by design, so each primitive
+	 * type can only be assigned to itself and to {@link Untyped}.
+	 */
+	private static final long[] PRIMITIVE_ASSIGNABLE = new long[UNTYPED];
+
+	static {
+		for (int i = 0; i < UNTYPED; i++)
+			PRIMITIVE_ASSIGNABLE[i] = (1L << i) | (1L << UNTYPED);
+	}
+
+	/**
+	 * States of a cell of the assignability matrix, each cell taking two bits.
+	 */
+	private static final int UNKNOWN = 0, NOT_ASSIGNABLE = 1, ASSIGNABLE = 3;
+
+	/**
+	 * Yields the fixed identifier of the given primitive type.
+	 *
+	 * @param type the class of the primitive type
+	 *
+	 * @return the identifier of {@code type}
+	 *
+	 * @throws IllegalArgumentException if {@code type} is not a primitive type
+	 */
+	public static int primitiveId(Class<? extends RustType> type) {
+		int id = PRIMITIVES.indexOf(type);
+		if (id < 0)
+			throw new IllegalArgumentException(type.getName() + " is not a primitive Rust type");
+		return id;
+	}
+
+	private static int idOf(Type type) {
+		if (type instanceof RustType)
+			return ((RustType) type).getTypeId();
+		return type == Untyped.INSTANCE ? UNTYPED : UNREGISTERED;
+	}
+
+	/**
+	 * Checks whether the primitive type {@code type} can be assigned to
+	 * {@code other}.
+	 *
+	 * @param type  the primitive type
+	 * @param other the other type
+	 *
+	 * @return whether {@code type} can be assigned to {@code other}
+	 */
+	public static boolean canBeAssignedTo(RustType type, Type other) {
+		int to = idOf(other);
+		return to >= 0 && to <= UNTYPED && (PRIMITIVE_ASSIGNABLE[type.getTypeId()] & (1L << to)) != 0;
+	}
+
+	/**
+	 * Yields the common supertype of the primitive type {@code type} and
+	 * {@code other}.
+	 *
+	 * @param type  the primitive type
+	 * @param other the other type
+	 *
+	 * @return {@code other} if it is the same type of {@code type},
+	 *             {@link Untyped#INSTANCE} otherwise
+	 */
+	public static Type commonSupertype(RustType type, Type other) {
+		return idOf(other) == type.getTypeId() ? other : Untyped.INSTANCE;
+	}
+
+	/**
+	 * The cached assignability of a single type to the other ones, two bits
+	 * for each type.
+	 */
+	private static final class Row {
+
+		private final int width;
+		private final AtomicLongArray assignable;
+
+		private Row(int width) {
+			this.width = width;
+			this.assignable = new AtomicLongArray((width + 31) >>> 5);
+		}
+
+		private Row(Row old, int width) {
+			this(width);
+			for (int i = 0; i < old.assignable.length(); i++)
+				assignable.set(i, old.assignable.get(i));
+		}
+	}
+
+	private volatile RustType[] types = new RustType[16];
+	private volatile Row[] rows = new Row[16];
+
+	/**
+	 * The cached common supertypes, indexed by the pair of the identifiers of
+	 * the two types. Only the pairs that have been queried are stored, as a
+	 * row of references as wide as the whole lattice would take quadratic
+	 * space.
+	 */
+	private final Map<Long, Type> supertypes = new ConcurrentHashMap<>();
+	private int next = FIRST_COMPOSITE;
+
+	/**
+	 * Gives a fresh identifier to {@code type}. This is meant to be called
+	 * once, by the constructor of the canonical instance of a type interned by
+	 * the registry owning this lattice.
+	 *
+	 * @param type the type to register
+	 *
+	 * @return the identifier of {@code type}
+	 */
+	public synchronized int register(RustType type) {
+		int id = next++;
+		int index = id - FIRST_COMPOSITE;
+		RustType[] current = types;
+		if (index >= current.length) {
+			current = Arrays.copyOf(current, current.length * 2);
+			types = current;
+		}
+		current[index] = type;
+		// republish the array so that readers see the new entry
+		types = current;
+		return id;
+	}
+
+	/**
+	 * Yields the number of identifiers given so far, including the ones of the
+	 * primitive types.
+	 *
+	 * @return the number of identifiers
+	 */
+	public synchronized int size() {
+		return next;
+	}
+
+	/**
+	 * Yields the types registered in this lattice whose identifier is between
+	 * {@code from}, inclusive, and {@code to}, exclusive, in the order they
+	 * have been registered. As identifiers are given in sequence, the types
+	 * registered after this lattice had {@code n} identifiers are the ones
+	 * between {@code n} and {@link #size()}.
+	 *
+	 * @param from the lowest identifier
+	 * @param to   the identifier following the highest one
+	 *
+	 * @return the types with an identifier between {@code from} and
+	 *             {@code to}
+	 */
+	public synchronized List<RustType> registered(int from, int to) {
+		int first = Math.max(from, FIRST_COMPOSITE) - FIRST_COMPOSITE;
+		int last = Math.min(to, next) - FIRST_COMPOSITE;
+		if (first >= last)
+			return Collections.emptyList();
+		return Arrays.asList(Arrays.copyOfRange(types, first, last));
+	}
+
+	private boolean owns(Type type, int id) {
+		if (id < FIRST_COMPOSITE)
+			return id >= 0;
+		RustType[] current = types;
+		int index = id - FIRST_COMPOSITE;
+		return index < current.length && current[index] == type;
+	}
+
+	private Row row(int from, int to) {
+		int index = from - FIRST_COMPOSITE;
+		Row[] current = rows;
+		Row row = index < current.length ? current[index] : null;
+		if (row != null && to < row.width)
+			return row;
+		return growRow(index, to);
+	}
+
+	private synchronized Row growRow(int index, int to) {
+		Row[] current = rows;
+		if (index >= current.length) {
+			current = Arrays.copyOf(current, Math.max(current.length * 2, index + 1));
+			rows = current;
+		}
+
+		Row row = current[index];
+		if (row == null || to >= row.width) {
+			int width = Math.max(next, to + 1);
+			row = row == null ? new Row(width) : new Row(row, width);
+			current[index] = row;
+			rows = current;
+		}
+
+		return row;
+	}
+
+	/**
+	 * Checks whether {@code type}, that has been registered in this lattice,
+	 * can be assigned to {@code other}. The first time the relation between
+	 * the two types is queried, it is computed through {@code structural} and
+	 * then cached.
+	 *
+	 * @param type       the type registered in this lattice
+	 * @param other      the other type
+	 * @param structural the structural assignability check of {@code type}
+	 *
+	 * @return whether {@code type} can be assigned to {@code other}
+	 */
+	public boolean canBeAssignedTo(RustType type, Type other, Predicate<Type> structural) {
+		int from = type.getTypeId();
+		int to = idOf(other);
+		if (!owns(type, from) || !owns(other, to))
+			return structural.test(other);
+
+		AtomicLongArray cells = row(from, to).assignable;
+		int word = to >>> 5;
+		int shift = (to & 31) << 1;
+		int cell = (int) (cells.get(word) >>> shift) & 3;
+		if (cell != UNKNOWN)
+			return cell == ASSIGNABLE;
+
+		boolean result = structural.test(other);
+		long bits = (long) (result ? ASSIGNABLE : NOT_ASSIGNABLE) << shift;
+		cells.accumulateAndGet(word, bits, (a, b) -> a | b);
+		return result;
+	}
+
+	/**
+	 * Yields the common supertype of {@code type}, that has been registered in
+	 * this lattice, and {@code other}. The first time the relation between the
+	 * two types is queried, it is computed through {@code structural} and then
+	 * cached.
+	 *
+	 * @param type       the type registered in this lattice
+	 * @param other      the other type
+	 * @param structural the structural computation of the common supertype of
+	 *                       {@code type}
+	 *
+	 * @return the common supertype of {@code type} and {@code other}
+	 */
+	public Type commonSupertype(RustType type, Type other, Function<Type, Type> structural) {
+		int from = type.getTypeId();
+		int to = idOf(other);
+		if (!owns(type, from) || !owns(other, to))
+			return structural.apply(other);
+
+		Long pair = ((long) from << 32) | to;
+		Type result = supertypes.get(pair);
+		if (result == null) {
+			result = structural.apply(other);
+			supertypes.put(pair, result);
+		}
+
+		return result;
+	}
+}
@@ -1,7 +1,6 @@
 package it.unipr.cfg.type;
 
 import it.unive.lisa.type.Type;
-import it.unive.lisa.type.Untyped;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -15,6 +14,8 @@ public class RustUnitType implements RustType {
 
 	private static final RustUnitType INSTANCE = new RustUnitType();
 
+	private static final int ID = RustTypeLattice.primitiveId(RustUnitType.class);
+
 	/**
 	 * Yields the singleton instance based on mutability.
 	 * 
@@ -27,16 +28,19 @@ public class RustUnitType implements RustType {
 	private RustUnitType() {
 	}
 
+	@Override
+	public int getTypeId() {
+		return ID;
+	}
+
 	@Override
 	public boolean canBeAssignedTo(Type other) {
-		return other instanceof RustUnitType || other instanceof Untyped;
+		return RustTypeLattice.canBeAssignedTo(this, other);
 	}
 
 	@Override
 	public Type commonSupertype(Type other) {
-		if (other instanceof RustUnitType)
-			return other;
-		return Untyped.INSTANCE;
+		return RustTypeLattice.commonSupertype(this, other);
 	}
 
 	@Override
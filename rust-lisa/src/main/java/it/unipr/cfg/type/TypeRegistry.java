@@ -0,0 +1,436 @@
+package it.unipr.cfg.type;
+
+import it.unipr.cfg.type.composite.RustArrayType;
+import it.unipr.cfg.type.composite.RustStructType;
+import it.unipr.cfg.type.composite.RustTupleType;
+import it.unipr.cfg.type.composite.enums.RustEnumType;
+import it.unive.lisa.type.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Interning tables of the Rust types built during a single run of the
+ * front-end. Every run owns its own registry, so that different files can be
+ * processed concurrently and the types of a finished run can be reclaimed
+ * together with it. The static facades of the type classes (e.g.,
+ * {@link RustStructType#lookup}) operate on the registry that is
+ * {@link #current() current} for the calling thread.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public final class TypeRegistry {
+
+	/**
+	 * The registry used when no other registry is bound to the current thread.
+	 */
+	private static final TypeRegistry DEFAULT = new TypeRegistry();
+
+	/**
+	 * The registry bound to each thread, if any.
+	 */
+	private static final ThreadLocal<TypeRegistry> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Yields the default registry, that is, the one used when no other
+	 * registry has been bound to the current thread.
+	 *
+	 * @return the default registry
+	 */
+	public static TypeRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Yields the registry bound to the current thread, or the
+	 * {@link #getDefault() default} one if no registry has been bound.
+	 *
+	 * @return the current registry
+	 */
+	public static TypeRegistry current() {
+		TypeRegistry registry = CURRENT.get();
+		return registry == null ? DEFAULT : registry;
+	}
+
+	/**
+	 * Binds the given registry to the current thread, so that the static
+	 * facades of the Rust types operate on it. Passing {@code null} restores
+	 * the default registry.
+	 *
+	 * @param registry the registry to bind
+	 *
+	 * @return the registry that was previously bound to the current thread
+	 *             (possibly {@code null})
+	 */
+	public static TypeRegistry bind(TypeRegistry registry) {
+		TypeRegistry previous = CURRENT.get();
+		if (registry == null)
+			CURRENT.remove();
+		else
+			CURRENT.set(registry);
+		return previous;
+	}
+
+	/**
+	 * Immutable snapshot of the types of a given kind, taken when the kind was
+	 * at the given version.
+	 */
+	private static final class Snapshot {
+
+		private final long version;
+		private final Collection<Type> types;
+
+		private Snapshot(long version, Collection<Type> types) {
+			this.version = version;
+			this.types = types;
+		}
+	}
+
+	/**
+	 * Read-only view of the types of a given kind. The view is versioned: it
+	 * is invalidated every time a type of its kind is added or removed, and
+	 * its snapshot is rebuilt only by the first read following an
+	 * invalidation. All the other reads hand out the cached snapshot without
+	 * copying it.
+	 */
+	private static final class View {
+
+		private final AtomicLong version = new AtomicLong();
+		private volatile Snapshot snapshot;
+
+		private void invalidate() {
+			version.incrementAndGet();
+		}
+
+		private Collection<Type> get(Supplier<Collection<? extends Type>> source) {
+			long current = version.get();
+			Snapshot cached = snapshot;
+			if (cached != null && cached.version == current)
+				return cached.types;
+
+			// if the kind changes while copying, the snapshot is stored with
+			// the old version and is rebuilt by the next read
+			Collection<Type> types = Collections.unmodifiableSet(new HashSet<>(source.get()));
+			snapshot = new Snapshot(current, types);
+			return types;
+		}
+	}
+
+	private final ConcurrentMap<String, RustStructType> structs = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, RustEnumType> enums = new ConcurrentHashMap<>();
+	private final View structsView = new View();
+	private final View enumsView = new View();
+
+	/**
+	 * Hash-consing table of the structural (pointer, array and tuple) types,
+	 * mapping each type to its canonical instance.
+	 */
+	private final ConcurrentMap<RustType, RustType> canonical = new ConcurrentHashMap<>();
+
+	/**
+	 * The canonical instances of {@link #canonical}, grouped by their class.
+	 */
+	private final ConcurrentMap<Class<?>, Set<Type>> byKind = new ConcurrentHashMap<>();
+
+	/**
+	 * The views of the canonical instances of {@link #canonical}, grouped by
+	 * their class.
+	 */
+	private final ConcurrentMap<Class<?>, View> views = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Bumped every time interned types are removed, so that instances interned
+	 * before and after a removal are never mistaken for distinct canonical
+	 * instances.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * The lattice giving dense identifiers to the types of this registry.
+	 */
+	private volatile RustTypeLattice lattice = new RustTypeLattice();
+
+	/**
+	 * Yields the struct type named {@code name}, building it through
+	 * {@code factory} if it is not registered yet.
+	 *
+	 * @param name    the name of the struct type
+	 * @param factory the function building the struct type owned by this
+	 *                    registry
+	 *
+	 * @return the unique struct type named {@code name}
+	 */
+	public RustStructType lookupStruct(String name, Function<TypeRegistry, RustStructType> factory) {
+		RustStructType found = structs.get(name);
+		if (found != null)
+			return found;
+
+		found = structs.computeIfAbsent(name, x -> factory.apply(this));
+		structsView.invalidate();
+		return found;
+	}
+
+	/**
+	 * Yields the struct type named {@code name}, if any.
+	 *
+	 * @param name the name of the struct type
+	 *
+	 * @return the struct type named {@code name}, or {@code null} if no such
+	 *             struct has been registered
+	 */
+	public RustStructType getStruct(String name) {
+		return structs.get(name);
+	}
+
+	/**
+	 * Yields the enum type named {@code name}, building it through
+	 * {@code factory} if it is not registered yet.
+	 *
+	 * @param name    the name of the enum type
+	 * @param factory the function building the enum type owned by this
+	 *                    registry
+	 *
+	 * @return the unique enum type named {@code name}
+	 */
+	public RustEnumType lookupEnum(String name, Function<TypeRegistry, RustEnumType> factory) {
+		RustEnumType found = enums.get(name);
+		if (found != null)
+			return found;
+
+		found = enums.computeIfAbsent(name, x -> factory.apply(this));
+		enumsView.invalidate();
+		return found;
+	}
+
+	/**
+	 * Yields the enum type named {@code name}, if any.
+	 *
+	 * @param name the name of the enum type
+	 *
+	 * @return the enum type named {@code name}, or {@code null} if no such enum
+	 *             has been registered
+	 */
+	public RustEnumType getEnum(String name) {
+		return enums.get(name);
+	}
+
+	/**
+	 * Yields the canonical instance of the structural type {@code type}. If no
+	 * type equal to {@code type} has been interned yet, the canonical instance
+	 * is built through {@code factory} and registered. Lookups take constant
+	 * time, as they are resolved through the structural hash of {@code type}.
+	 * Looking for a type and registering it is atomic: {@code factory} is
+	 * called at most once for each type, even when the same type is interned
+	 * by different threads at once, so that every instance it builds is
+	 * canonical.
+	 *
+	 * @param <T>     the kind of type to intern
+	 * @param type    the type to look for, that is not owned by this registry
+	 *                    unless it is canonical
+	 * @param factory the function building the canonical instance owned by
+	 *                    this registry
+	 *
+	 * @return the unique type of this registry equal to {@code type}
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends RustType> T intern(T type, Function<TypeRegistry, T> factory) {
+		RustType found = canonical.get(type);
+		if (found != null) {
+			hits.increment();
+			return (T) found;
+		}
+
+		// type is the key of the table, and it is compared structurally with
+		// the canonical instances, that are its values
+		Object[] built = new Object[1];
+		found = canonical.computeIfAbsent(type, k -> {
+			T candidate = factory.apply(this);
+			built[0] = candidate;
+			byKind.computeIfAbsent(candidate.getClass(), c -> ConcurrentHashMap.newKeySet()).add(candidate);
+			viewOf(candidate.getClass()).invalidate();
+			return candidate;
+		});
+
+		if (found == built[0])
+			misses.increment();
+		else
+			hits.increment();
+		return (T) found;
+	}
+
+	/**
+	 * Yields the number of {@link #intern(RustType, Function)} calls that have
+	 * been answered with an already interned type.
+	 *
+	 * @return the number of interning hits
+	 */
+	public long getInternHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Yields the number of {@link #intern(RustType, Function)} calls that had
+	 * to register a new type.
+	 *
+	 * @return the number of interning misses
+	 */
+	public long getInternMisses() {
+		return misses.sum();
+	}
+
+	private View viewOf(Class<?> kind) {
+		return views.computeIfAbsent(kind, k -> new View());
+	}
+
+	private Collection<Type> instancesOf(Class<?> kind) {
+		return viewOf(kind).get(() -> {
+			Set<Type> instances = byKind.get(kind);
+			return instances == null ? Collections.emptySet() : instances;
+		});
+	}
+
+	/**
+	 * Yields the lattice of the types interned by this registry.
+	 *
+	 * @return the lattice of this registry
+	 */
+	public RustTypeLattice getLattice() {
+		return lattice;
+	}
+
+	/**
+	 * Yields the generation of this registry, that changes every time interned
+	 * types are removed from it. The instances owned by this registry are only
+	 * built by {@link #intern(RustType, Function)}, once for each type, so two
+	 * distinct instances owned by this registry in the same generation are
+	 * both canonical, and are guaranteed to be structurally different.
+	 *
+	 * @return the current generation of this registry
+	 */
+	public long getGeneration() {
+		return generation.get();
+	}
+
+	private void clearKind(Class<?> kind) {
+		generation.incrementAndGet();
+		byKind.remove(kind);
+		canonical.keySet().removeIf(kind::isInstance);
+		viewOf(kind).invalidate();
+	}
+
+	/**
+	 * Yields all the struct types of this registry. The returned collection is
+	 * an immutable snapshot, shared among callers until a new struct type is
+	 * registered.
+	 *
+	 * @return the struct types
+	 */
+	public Collection<Type> structs() {
+		return structsView.get(structs::values);
+	}
+
+	/**
+	 * Yields all the enum types of this registry. The returned collection is an
+	 * immutable snapshot, shared among callers until a new enum type is
+	 * registered.
+	 *
+	 * @return the enum types
+	 */
+	public Collection<Type> enums() {
+		return enumsView.get(enums::values);
+	}
+
+	/**
+	 * Yields all the pointer types of this registry. As for
+	 * {@link #structs()}, the returned collection is an immutable snapshot.
+	 *
+	 * @return the pointer types
+	 */
+	public Collection<Type> pointers() {
+		return instancesOf(RustPointerType.class);
+	}
+
+	/**
+	 * Yields all the array types of this registry.
+	 *
+	 * @return the array types
+	 */
+	public Collection<Type> arrays() {
+		return instancesOf(RustArrayType.class);
+	}
+
+	/**
+	 * Yields all the tuple types of this registry.
+	 *
+	 * @return the tuple types
+	 */
+	public Collection<Type> tuples() {
+		return instancesOf(RustTupleType.class);
+	}
+
+	/**
+	 * Removes all the struct types of this registry.
+	 */
+	public void clearStructs() {
+		// composite types may contain the removed structs
+		generation.incrementAndGet();
+		structs.clear();
+		structsView.invalidate();
+	}
+
+	/**
+	 * Removes all the enum types of this registry.
+	 */
+	public void clearEnums() {
+		generation.incrementAndGet();
+		enums.clear();
+		enumsView.invalidate();
+	}
+
+	/**
+	 * Removes all the pointer types of this registry.
+	 */
+	public void clearPointers() {
+		clearKind(RustPointerType.class);
+	}
+
+	/**
+	 * Removes all the array types of this registry.
+	 */
+	public void clearArrays() {
+		clearKind(RustArrayType.class);
+	}
+
+	/**
+	 * Removes all the tuple types of this registry.
+	 */
+	public void clearTuples() {
+		clearKind(RustTupleType.class);
+	}
+
+	/**
+	 * Removes all the types of this registry.
+	 */
+	public void clear() {
+		clearStructs();
+		clearEnums();
+		generation.incrementAndGet();
+		lattice = new RustTypeLattice();
+		byKind.clear();
+		canonical.clear();
+		views.values().forEach(View::invalidate);
+		hits.reset();
+		misses.reset();
+	}
+}
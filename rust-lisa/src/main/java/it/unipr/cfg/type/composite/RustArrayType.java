@@ -1,13 +1,13 @@
 package it.unipr.cfg.type.composite;
 
 import it.unipr.cfg.type.RustType;
+import it.unipr.cfg.type.RustTypeLattice;
+import it.unipr.cfg.type.TypeRegistry;
 import it.unive.lisa.type.ArrayType;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Objects;
-import java.util.Set;
 
 /**
  * Instance of the Rust array type.
@@ -17,11 +17,6 @@ import java.util.Set;
  */
 public class RustArrayType implements ArrayType, RustType {
 
-	/**
-	 * Collection of all arrays.
-	 */
-	private static final Set<RustArrayType> INSTANCES = new HashSet<>();
-
 	/**
 	 * Yields the first instance that matches array type requested or adds it if
 	 * not present.
@@ -31,17 +26,14 @@ public class RustArrayType implements ArrayType, RustType {
 	 * @return the first {@link RustArrayType} inserted of the same kind
 	 */
 	public static RustArrayType lookup(RustArrayType type) {
-		if (!INSTANCES.contains(type))
-			INSTANCES.add(type);
-
-		return INSTANCES.stream().filter(x -> x.equals(type)).findFirst().get();
+		return TypeRegistry.current().intern(type, registry -> new RustArrayType(type, registry));
 	}
 
 	/**
 	 * Remove all instances of Rust array types.
 	 */
 	public static void clearAll() {
-		INSTANCES.clear();
+		TypeRegistry.current().clearArrays();
 	}
 
 	/**
@@ -50,11 +42,7 @@ public class RustArrayType implements ArrayType, RustType {
 	 * @return all instances of a Rust array types
 	 */
 	public static Collection<Type> all() {
-		Collection<Type> result = new HashSet<>();
-		for (Type t : INSTANCES.toArray(new RustArrayType[0])) {
-			result.add(t);
-		}
-		return result;
+		return TypeRegistry.current().arrays();
 	}
 
 	/**
@@ -63,6 +51,15 @@ public class RustArrayType implements ArrayType, RustType {
 	 */
 	private final Type contentType;
 	private final Integer length;
+	private final TypeRegistry registry;
+	private final long generation;
+	private final int id;
+
+	/**
+	 * Structural hash of this type, computed once since the type is
+	 * immutable.
+	 */
+	private final int hash;
 
 	/**
 	 * Construct the {@link RustArrayType} object.
@@ -73,10 +70,34 @@ public class RustArrayType implements ArrayType, RustType {
 	public RustArrayType(Type contentType, Integer length) {
 		this.contentType = Objects.requireNonNull(contentType);
 		this.length = Objects.requireNonNull(length);
+		this.registry = null;
+		this.generation = 0;
+		this.id = RustTypeLattice.UNREGISTERED;
+		this.hash = Objects.hash(contentType, length);
+	}
+
+	private RustArrayType(RustArrayType type, TypeRegistry registry) {
+		this.contentType = type.contentType;
+		this.length = type.length;
+		this.registry = registry;
+		this.generation = registry.getGeneration();
+		this.hash = type.hash;
+		this.id = registry.getLattice().register(this);
+	}
+
+	@Override
+	public int getTypeId() {
+		return id;
 	}
 
 	@Override
 	public boolean canBeAssignedTo(Type other) {
+		if (registry == null)
+			return isAssignableTo(other);
+		return registry.getLattice().canBeAssignedTo(this, other, this::isAssignableTo);
+	}
+
+	private boolean isAssignableTo(Type other) {
 		if (other instanceof RustArrayType)
 			return contentType.canBeAssignedTo(((RustArrayType) other).contentType)
 					&& length.equals(((RustArrayType) other).length);
@@ -86,6 +107,12 @@ public class RustArrayType implements ArrayType, RustType {
 
 	@Override
 	public Type commonSupertype(Type other) {
+		if (registry == null)
+			return supertypeWith(other);
+		return registry.getLattice().commonSupertype(this, other, this::supertypeWith);
+	}
+
+	private Type supertypeWith(Type other) {
 		if (other instanceof RustArrayType)
 			if (contentType.canBeAssignedTo(((RustArrayType) other).contentType)
 					&& length.equals(((RustArrayType) other).length))
@@ -95,11 +122,7 @@ public class RustArrayType implements ArrayType, RustType {
 
 	@Override
 	public Collection<Type> allInstances() {
-		Collection<Type> instances = new HashSet<>();
-		for (RustArrayType array : INSTANCES)
-			instances.add(array);
-
-		return instances;
+		return (registry == null ? TypeRegistry.current() : registry).arrays();
 	}
 
 	@Override
@@ -117,7 +140,7 @@ public class RustArrayType implements ArrayType, RustType {
 
 	@Override
 	public int hashCode() {
-		return contentType.hashCode() + length;
+		return hash;
 	}
 
 	@Override
@@ -133,6 +156,14 @@ public class RustArrayType implements ArrayType, RustType {
 
 		RustArrayType other = (RustArrayType) obj;
 
+		if (hash != other.hash)
+			return false;
+
+		// instances owned by a registry are canonical: two distinct ones of the
+		// same generation are never equal
+		if (registry != null && registry == other.registry && generation == other.generation)
+			return false;
+
 		if (contentType == null) {
 			if (other.contentType != null)
 				return false;
@@ -1,6 +1,7 @@
 package it.unipr.cfg.type.composite;
 
 import it.unipr.cfg.type.RustType;
+import it.unipr.cfg.type.TypeRegistry;
 import it.unipr.cfg.type.composite.enums.RustEnumVariant;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.cfg.statement.Expression;
@@ -9,9 +10,6 @@ import it.unive.lisa.type.Type;
 import it.unive.lisa.type.UnitType;
 import it.unive.lisa.type.Untyped;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 
 /**
  * Builds the Rust struct type.
@@ -21,8 +19,6 @@ import java.util.Map;
  */
 public class RustStructType implements UnitType, RustType, RustEnumVariant {
 
-	private static final Map<String, RustStructType> INSTANCES = new HashMap<>();
-
 	/**
 	 * Yields a unique instance (either an existing one or a fresh one) of
 	 * {@link RustStructType} representing a struct type with the given
@@ -35,7 +31,7 @@ public class RustStructType implements UnitType, RustType, RustEnumVariant {
 	 *             struct type with the given name
 	 */
 	public static RustStructType lookup(String name, CompilationUnit unit) {
-		return INSTANCES.computeIfAbsent(name, x -> new RustStructType(name, unit));
+		return TypeRegistry.current().lookupStruct(name, registry -> new RustStructType(name, unit, registry));
 	}
 
 	/**
@@ -48,16 +44,17 @@ public class RustStructType implements UnitType, RustType, RustEnumVariant {
 	 * @throws IllegalArgumentException if there is no struct with such name
 	 */
 	public static RustStructType get(String name) {
-		if (INSTANCES.get(name) == null)
+		RustStructType struct = TypeRegistry.current().getStruct(name);
+		if (struct == null)
 			throw new IllegalArgumentException("There is no struct with name " + name);
-		return INSTANCES.get(name);
+		return struct;
 	}
 
 	/**
 	 * Remove all instances of Rust struct types.
 	 */
 	public static void clearAll() {
-		INSTANCES.clear();
+		TypeRegistry.current().clearStructs();
 	}
 
 	/**
@@ -68,7 +65,7 @@ public class RustStructType implements UnitType, RustType, RustEnumVariant {
 	 * @return whether a struct type named {@code name} has been already built.
 	 */
 	public static boolean has(String name) {
-		return INSTANCES.containsKey(name);
+		return TypeRegistry.current().getStruct(name) != null;
 	}
 
 	/**
@@ -77,30 +74,39 @@ public class RustStructType implements UnitType, RustType, RustEnumVariant {
 	 * @return all instances of a Rust struct types
 	 */
 	public static Collection<Type> all() {
-		Collection<Type> result = new HashSet<>();
-		for (Type t : INSTANCES.values()) {
-			result.add(t);
-		}
-		return result;
+		return TypeRegistry.current().structs();
 	}
 
 	private final String name;
 	private final CompilationUnit unit;
+	private final TypeRegistry registry;
+	private final int id;
 
 	/**
 	 * Builds the struct type.
 	 * 
-	 * @param name  the name of the struct type
-	 * @param unit  the compilation unit of the struct type
-	 * @param types an ordered list of types inside the struct
+	 * @param name     the name of the struct type
+	 * @param unit     the compilation unit of the struct type
+	 * @param registry the registry owning this type
 	 */
-	private RustStructType(String name, CompilationUnit unit) {
+	private RustStructType(String name, CompilationUnit unit, TypeRegistry registry) {
 		this.name = name;
 		this.unit = unit;
+		this.registry = registry;
+		this.id = registry.getLattice().register(this);
+	}
+
+	@Override
+	public int getTypeId() {
+		return id;
 	}
 
 	@Override
 	public boolean canBeAssignedTo(Type other) {
+		return registry.getLattice().canBeAssignedTo(this, other, this::isAssignableTo);
+	}
+
+	private boolean isAssignableTo(Type other) {
 		if (other instanceof RustStructType) {
 			RustStructType o = (RustStructType) other;
 			return (name.equals(o.name) && unit.equals(o.unit));
@@ -110,6 +116,10 @@ public class RustStructType implements UnitType, RustType, RustEnumVariant {
 
 	@Override
 	public Type commonSupertype(Type other) {
+		return registry.getLattice().commonSupertype(this, other, this::supertypeWith);
+	}
+
+	private Type supertypeWith(Type other) {
 		if (other instanceof RustStructType) {
 			RustStructType o = (RustStructType) other;
 			if (name.equals(o.name) && unit.equals(o.unit))
@@ -120,10 +130,7 @@ public class RustStructType implements UnitType, RustType, RustEnumVariant {
 
 	@Override
 	public Collection<Type> allInstances() {
-		Collection<Type> instances = new HashSet<>();
-		for (RustStructType in : INSTANCES.values())
-			instances.add(in);
-		return instances;
+		return registry.structs();
 	}
 
 	@Override
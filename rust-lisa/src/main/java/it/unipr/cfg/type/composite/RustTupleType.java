@@ -1,16 +1,18 @@
 package it.unipr.cfg.type.composite;
 
 import it.unipr.cfg.type.RustType;
+import it.unipr.cfg.type.RustTypeLattice;
+import it.unipr.cfg.type.TypeRegistry;
 import it.unipr.cfg.type.composite.enums.RustEnumVariant;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -21,11 +23,6 @@ import java.util.stream.Collectors;
  */
 public class RustTupleType implements RustType, RustEnumVariant {
 
-	/**
-	 * Collection of all parse tuples.
-	 */
-	private static final Set<RustTupleType> INSTANCES = new HashSet<>();
-
 	/**
 	 * Yields the first instance that matches tuple type requested or adds it if
 	 * not present.
@@ -35,17 +32,14 @@ public class RustTupleType implements RustType, RustEnumVariant {
 	 * @return the first {@link RustTupleType} inserted of the same kind
 	 */
 	public static RustTupleType lookup(RustTupleType type) {
-		if (!INSTANCES.contains(type))
-			INSTANCES.add(type);
-
-		return INSTANCES.stream().filter(x -> x.equals(type)).findFirst().get();
+		return TypeRegistry.current().intern(type, registry -> new RustTupleType(type, registry));
 	}
 
 	/**
 	 * Remove all instances of Rust tuple types.
 	 */
 	public static void clearAll() {
-		INSTANCES.clear();
+		TypeRegistry.current().clearTuples();
 	}
 
 	/**
@@ -54,14 +48,19 @@ public class RustTupleType implements RustType, RustEnumVariant {
 	 * @return all instances of a Rust tuple types
 	 */
 	public static Collection<Type> all() {
-		Collection<Type> result = new HashSet<>();
-		for (Type t : INSTANCES.toArray(new RustTupleType[0])) {
-			result.add(t);
-		}
-		return result;
+		return TypeRegistry.current().tuples();
 	}
 
 	private final List<Type> types;
+	private final TypeRegistry registry;
+	private final long generation;
+	private final int id;
+
+	/**
+	 * Structural hash of this type, computed once since the type is
+	 * immutable.
+	 */
+	private final int hash;
 
 	/**
 	 * Construct the {@link RustTupleType} object.
@@ -69,7 +68,24 @@ public class RustTupleType implements RustType, RustEnumVariant {
 	 * @param types an ordered list of types inside the tuple
 	 */
 	public RustTupleType(List<Type> types) {
-		this.types = Objects.requireNonNull(types);
+		this.types = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(types)));
+		this.registry = null;
+		this.generation = 0;
+		this.id = RustTypeLattice.UNREGISTERED;
+		this.hash = this.types.hashCode();
+	}
+
+	private RustTupleType(RustTupleType type, TypeRegistry registry) {
+		this.types = type.types;
+		this.registry = registry;
+		this.generation = registry.getGeneration();
+		this.hash = type.hash;
+		this.id = registry.getLattice().register(this);
+	}
+
+	@Override
+	public int getTypeId() {
+		return id;
 	}
 
 	private boolean checkAssignment(Object other) {
@@ -87,26 +103,30 @@ public class RustTupleType implements RustType, RustEnumVariant {
 
 	@Override
 	public boolean canBeAssignedTo(Type other) {
-		return this.checkAssignment(other);
+		if (registry == null)
+			return checkAssignment(other);
+		return registry.getLattice().canBeAssignedTo(this, other, this::checkAssignment);
 	}
 
 	@Override
 	public Type commonSupertype(Type other) {
+		if (registry == null)
+			return supertypeWith(other);
+		return registry.getLattice().commonSupertype(this, other, this::supertypeWith);
+	}
+
+	private Type supertypeWith(Type other) {
 		return checkAssignment(other) ? other : Untyped.INSTANCE;
 	}
 
 	@Override
 	public Collection<Type> allInstances() {
-		Collection<Type> instances = new HashSet<>();
-		for (RustTupleType tuple : INSTANCES)
-			instances.add(tuple);
-
-		return instances;
+		return (registry == null ? TypeRegistry.current() : registry).tuples();
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(types);
+		return hash;
 	}
 
 	@Override
@@ -122,6 +142,14 @@ public class RustTupleType implements RustType, RustEnumVariant {
 
 		RustTupleType other = (RustTupleType) obj;
 
+		if (hash != other.hash)
+			return false;
+
+		// instances owned by a registry are canonical: two distinct ones of the
+		// same generation are never equal
+		if (registry != null && registry == other.registry && generation == other.generation)
+			return false;
+
 		if (types == null) {
 			if (other.types != null)
 				return false;
@@ -1,13 +1,12 @@
 package it.unipr.cfg.type.composite.enums;
 
 import it.unipr.cfg.type.RustType;
+import it.unipr.cfg.type.RustTypeLattice;
+import it.unipr.cfg.type.TypeRegistry;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.UnitType;
 import it.unive.lisa.type.Untyped;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -18,11 +17,6 @@ import java.util.Objects;
  */
 public class RustEnumType implements RustType, UnitType {
 
-	/**
-	 * Collection of all enums.
-	 */
-	private static final Map<String, RustEnumType> INSTANCES = new HashMap<>();
-
 	/**
 	 * Yields the first instance that matches enum type requested or adds it if
 	 * not present.
@@ -33,14 +27,14 @@ public class RustEnumType implements RustType, UnitType {
 	 * @return the first {@link RustEnumType} inserted of the same kind
 	 */
 	public static RustEnumType lookup(String name, EnumCompilationUnit unit) {
-		return INSTANCES.computeIfAbsent(name, x -> new RustEnumType(name, unit));
+		return TypeRegistry.current().lookupEnum(name, registry -> new RustEnumType(name, unit, registry));
 	}
 
 	/**
 	 * Remove all instances of Rust enum types.
 	 */
 	public static void clearAll() {
-		INSTANCES.clear();
+		TypeRegistry.current().clearEnums();
 	}
 
 	/**
@@ -49,11 +43,7 @@ public class RustEnumType implements RustType, UnitType {
 	 * @return all instances of a Rust enum types
 	 */
 	public static Collection<Type> all() {
-		Collection<Type> result = new HashSet<>();
-		for (Type t : INSTANCES.values()) {
-			result.add(t);
-		}
-		return result;
+		return TypeRegistry.current().enums();
 	}
 
 	/**
@@ -66,9 +56,10 @@ public class RustEnumType implements RustType, UnitType {
 	 * @throws IllegalArgumentException if there is no struct with such name
 	 */
 	public static RustEnumType get(String name) {
-		if (INSTANCES.get(name) == null)
+		RustEnumType enumType = TypeRegistry.current().getEnum(name);
+		if (enumType == null)
 			throw new IllegalArgumentException("There is no enum with name " + name);
-		return INSTANCES.get(name);
+		return enumType;
 	}
 
 	/**
@@ -79,7 +70,7 @@ public class RustEnumType implements RustType, UnitType {
 	 * @return whether a enum type named {@code name} has been already built.
 	 */
 	public static boolean has(String name) {
-		return INSTANCES.containsKey(name);
+		return TypeRegistry.current().getEnum(name) != null;
 	}
 
 	/**
@@ -87,6 +78,8 @@ public class RustEnumType implements RustType, UnitType {
 	 */
 	private final String name;
 	private final EnumCompilationUnit unit;
+	private final TypeRegistry registry;
+	private final int id;
 
 	/**
 	 * Construct the {@link RustEnumType} object. Note that {@code variantNames}
@@ -96,12 +89,29 @@ public class RustEnumType implements RustType, UnitType {
 	 * @param unit the compilation unit it belongs to
 	 */
 	public RustEnumType(String name, EnumCompilationUnit unit) {
+		this(name, unit, null);
+	}
+
+	private RustEnumType(String name, EnumCompilationUnit unit, TypeRegistry registry) {
 		this.name = Objects.requireNonNull(name);
 		this.unit = Objects.requireNonNull(unit);
+		this.registry = registry;
+		this.id = registry == null ? RustTypeLattice.UNREGISTERED : registry.getLattice().register(this);
+	}
+
+	@Override
+	public int getTypeId() {
+		return id;
 	}
 
 	@Override
 	public boolean canBeAssignedTo(Type o) {
+		if (registry == null)
+			return isAssignableTo(o);
+		return registry.getLattice().canBeAssignedTo(this, o, this::isAssignableTo);
+	}
+
+	private boolean isAssignableTo(Type o) {
 		if (o instanceof RustEnumType) {
 			RustEnumType other = (RustEnumType) o;
 			return name.equals(other.name)
@@ -113,6 +123,12 @@ public class RustEnumType implements RustType, UnitType {
 
 	@Override
 	public Type commonSupertype(Type o) {
+		if (registry == null)
+			return supertypeWith(o);
+		return registry.getLattice().commonSupertype(this, o, this::supertypeWith);
+	}
+
+	private Type supertypeWith(Type o) {
 		if (o instanceof RustEnumType) {
 			RustEnumType other = (RustEnumType) o;
 			if (name.equals(other.name)
@@ -125,11 +141,7 @@ public class RustEnumType implements RustType, UnitType {
 
 	@Override
 	public Collection<Type> allInstances() {
-		Collection<Type> instances = new HashSet<>();
-		for (RustEnumType enumType : INSTANCES.values())
-			instances.add(enumType);
-
-		return instances;
+		return (registry == null ? TypeRegistry.current() : registry).enums();
 	}
 
 	@Override
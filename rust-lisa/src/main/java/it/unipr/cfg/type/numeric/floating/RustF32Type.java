@@ -1,9 +1,9 @@
 package it.unipr.cfg.type.numeric.floating;
 
 import it.unipr.cfg.type.RustType;
+import it.unipr.cfg.type.RustTypeLattice;
 import it.unive.lisa.type.NumericType;
 import it.unive.lisa.type.Type;
-import it.unive.lisa.type.Untyped;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -17,6 +17,8 @@ public class RustF32Type implements NumericType, RustType {
 
 	private static final RustF32Type INSTANCE = new RustF32Type();
 
+	private static final int ID = RustTypeLattice.primitiveId(RustF32Type.class);
+
 	/**
 	 * Yields the singleton instance based on mutability.
 	 * 
@@ -38,18 +40,21 @@ public class RustF32Type implements NumericType, RustType {
 	private RustF32Type() {
 	}
 
+	@Override
+	public int getTypeId() {
+		return ID;
+	}
+
 	@Override
 	public boolean canBeAssignedTo(Type other) {
-		return other instanceof RustF32Type || other instanceof Untyped;
+		return RustTypeLattice.canBeAssignedTo(this, other);
 	}
 
 	@Override
 	public Type commonSupertype(Type other) {
 		// Rust cast ought to be explicit by design
 		// https://doc.rust-lang.org/rust-by-example/types/cast.html
-		if (other instanceof RustF32Type)
-			return other;
-		return Untyped.INSTANCE;
+		return RustTypeLattice.commonSupertype(this, other);
 	}
 
 	@Override
@@ -1,9 +1,9 @@
 package it.unipr.cfg.type.numeric.signed;
 
 import it.unipr.cfg.type.RustType;
+import it.unipr.cfg.type.RustTypeLattice;
 import it.unive.lisa.type.NumericType;
 import it.unive.lisa.type.Type;
-import it.unive.lisa.type.Untyped;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -17,6 +17,8 @@ public class RustI32Type implements NumericType, RustType {
 
 	private static final RustI32Type INSTANCE = new RustI32Type();
 
+	private static final int ID = RustTypeLattice.primitiveId(RustI32Type.class);
+
 	/**
 	 * Yields the singleton instance based on mutability.
 	 * 
@@ -29,18 +31,21 @@ public class RustI32Type implements NumericType, RustType {
 	private RustI32Type() {
 	}
 
+	@Override
+	public int getTypeId() {
+		return ID;
+	}
+
 	@Override
 	public boolean canBeAssignedTo(Type other) {
-		return other instanceof RustI32Type || other instanceof Untyped;
+		return RustTypeLattice.canBeAssignedTo(this, other);
 	}
 
 	@Override
 	public Type commonSupertype(Type other) {
 		// Rust cast ought to be explicit by design
 		// https://doc.rust-lang.org/rust-by-example/types/cast.html
-		if (other instanceof RustI32Type)
-			return other;
-		return Untyped.INSTANCE;
+		return RustTypeLattice.commonSupertype(this, other);
 	}
 
 	@Override
@@ -0,0 +1,129 @@
+package it.unipr.frontend;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * A {@link CharStream} over the raw bytes of a pure-ASCII source file, where
+ * each character takes exactly one byte and needs no decoding. Files with
+ * non-ASCII characters are decoded as UTF-8 by
+ * {@link #fromFile(String)} straight into the code-point streams of ANTLR.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public final class ByteCharStream implements CharStream {
+
+	/**
+	 * The size of the buffer used to decode non-ASCII files
+	 */
+	private static final int DECODE_BUFFER_SIZE = 4096;
+
+	private final byte[] bytes;
+	private final String name;
+	private int position;
+
+	private ByteCharStream(byte[] bytes, String name) {
+		this.bytes = bytes;
+		this.name = name;
+	}
+
+	/**
+	 * Yields a {@link CharStream} over the content of the file located at
+	 * {@code filePath}. The file is read at once and closed before returning.
+	 * If the file is pure ASCII, as most Rust sources are, the stream reads
+	 * the bytes of the file directly, otherwise they are decoded as UTF-8 into
+	 * a code-point stream, with no intermediate {@link String}.
+	 *
+	 * @param filePath the path of the file
+	 *
+	 * @return the stream over the content of the file
+	 *
+	 * @throws IOException if anything goes wrong during reading the file
+	 */
+	public static CharStream fromFile(String filePath) throws IOException {
+		byte[] bytes = Files.readAllBytes(Paths.get(filePath));
+		for (byte b : bytes)
+			if (b < 0)
+				return CharStreams.fromChannel(Channels.newChannel(new ByteArrayInputStream(bytes)),
+						StandardCharsets.UTF_8, DECODE_BUFFER_SIZE, CodingErrorAction.REPLACE, filePath, bytes.length);
+
+		return new ByteCharStream(bytes, filePath);
+	}
+
+	@Override
+	public void consume() {
+		if (position >= bytes.length)
+			throw new IllegalStateException("cannot consume EOF");
+		position++;
+	}
+
+	@Override
+	public int LA(int i) {
+		int offset;
+		if (i > 0)
+			offset = position + i - 1;
+		else if (i < 0)
+			offset = position + i;
+		else
+			// undefined
+			return 0;
+
+		if (offset < 0 || offset >= bytes.length)
+			return IntStream.EOF;
+		return bytes[offset];
+	}
+
+	@Override
+	public int mark() {
+		// the whole input is in memory: nothing to retain
+		return -1;
+	}
+
+	@Override
+	public void release(int marker) {
+	}
+
+	@Override
+	public int index() {
+		return position;
+	}
+
+	@Override
+	public void seek(int index) {
+		position = Math.max(0, Math.min(index, bytes.length));
+	}
+
+	@Override
+	public int size() {
+		return bytes.length;
+	}
+
+	@Override
+	public String getSourceName() {
+		return name == null || name.isEmpty() ? IntStream.UNKNOWN_SOURCE_NAME : name;
+	}
+
+	@Override
+	public String getText(Interval interval) {
+		int start = Math.min(interval.a, bytes.length);
+		int length = Math.min(interval.b - interval.a + 1, bytes.length - start);
+		if (length <= 0)
+			return "";
+		return new String(bytes, start, length, StandardCharsets.US_ASCII);
+	}
+
+	@Override
+	public String toString() {
+		return getText(Interval.of(0, bytes.length - 1));
+	}
+}
@@ -0,0 +1,45 @@
+package it.unipr.frontend;
+
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.type.Type;
+
+/**
+ * A consumer of the compilation units and of the CFGs of a Rust program, that
+ * receives them from {@link RustFrontend#processFile(String, CfgSink)} as soon
+ * as they are built.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+@FunctionalInterface
+public interface CfgSink {
+
+	/**
+	 * Receives a compilation unit of the program. Units are received before
+	 * any CFG, with their globals but without their CFGs.
+	 *
+	 * @param unit the compilation unit
+	 */
+	default void acceptUnit(CompilationUnit unit) {
+	}
+
+	/**
+	 * Receives a type of the program. The types known before any CFG is built,
+	 * e.g., the primitive and the struct types, are received before any unit,
+	 * and each type first met while building a CFG is received before that
+	 * CFG.
+	 *
+	 * @param type the type
+	 */
+	default void acceptType(Type type) {
+	}
+
+	/**
+	 * Receives a CFG of the program, once it is completely built. The CFG is
+	 * not added to any unit nor to any program by the front-end.
+	 *
+	 * @param cfg the CFG
+	 */
+	void acceptCfg(CFG cfg);
+}
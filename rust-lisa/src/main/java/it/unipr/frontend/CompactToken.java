@@ -0,0 +1,246 @@
+package it.unipr.frontend;
+
+import it.unipr.rust.antlr.RustLexer;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.WritableToken;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+
+/**
+ * A compact {@link Token}, built by {@link CompactTokenFactory}. A token only
+ * stores its type and channel, packed into a single {@code int}, its index,
+ * its start and stop offsets, packed into a single {@code long}, and its line
+ * and column, packed the same way. The token source, the input stream and the
+ * table where identifiers are interned are shared by all the tokens of the
+ * same input.
+ * The text of the token is not stored, but sliced from the input stream each
+ * time it is requested: the text of identifiers is then interned, so that
+ * all the occurrences of the same name yield the same string.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public class CompactToken implements WritableToken {
+
+	private static final long LOW = 0xFFFFFFFFL;
+
+	/**
+	 * What the tokens of the same input share: their token source, their
+	 * input stream and the table where identifiers are interned.
+	 */
+	static final class Origin {
+		private final Pair<TokenSource, CharStream> source;
+		private final SymbolTable symbols;
+
+		Origin(Pair<TokenSource, CharStream> source, SymbolTable symbols) {
+			this.source = source;
+			this.symbols = symbols;
+		}
+
+		boolean isOf(Pair<TokenSource, CharStream> source) {
+			return this.source == source;
+		}
+	}
+
+	private final Origin origin;
+	private int kind;
+	private int index = -1;
+	private long offsets;
+	private long position;
+
+	/**
+	 * Builds the token.
+	 *
+	 * @param origin  the origin of the token, shared among all the tokens of
+	 *                    the same input
+	 * @param type    the type of the token
+	 * @param channel the channel of the token
+	 * @param start   the offset of the first character of the token
+	 * @param stop    the offset of the last character of the token
+	 * @param line    the line of the token
+	 * @param column  the column of the first character of the token
+	 */
+	CompactToken(Origin origin, int type, int channel, int start, int stop, int line, int column) {
+		this.origin = origin;
+		this.kind = kind(type, channel);
+		this.offsets = pack(start, stop);
+		this.position = pack(line, column);
+	}
+
+	/**
+	 * Yields a copy of this token, sharing its origin.
+	 *
+	 * @return the copy
+	 */
+	public CompactToken copy() {
+		CompactToken copy = new CompactToken(origin, getType(), getChannel(), getStartIndex(), getStopIndex(),
+				getLine(), getCharPositionInLine());
+		copy.index = index;
+		return copy;
+	}
+
+	Origin getOrigin() {
+		return origin;
+	}
+
+	private static int kind(int type, int channel) {
+		// token types, including EOF, fit in a short
+		return (channel << 16) | (type & 0xFFFF);
+	}
+
+	private static long pack(int high, int low) {
+		return ((long) high << 32) | (low & LOW);
+	}
+
+	private static int high(long packed) {
+		return (int) (packed >>> 32);
+	}
+
+	private static int low(long packed) {
+		return (int) packed;
+	}
+
+	@Override
+	public String getText() {
+		CharStream input = getInputStream();
+		if (input == null)
+			return null;
+
+		int start = getStartIndex();
+		int stop = getStopIndex();
+		int n = input.size();
+		if (start >= n || stop >= n)
+			return "<EOF>";
+
+		String text = input.getText(Interval.of(start, stop));
+		return getType() == RustLexer.Ident ? origin.symbols.name(text) : text;
+	}
+
+	@Override
+	public int getType() {
+		return (short) kind;
+	}
+
+	@Override
+	public int getLine() {
+		return high(position);
+	}
+
+	@Override
+	public int getCharPositionInLine() {
+		return low(position);
+	}
+
+	@Override
+	public int getChannel() {
+		return kind >>> 16;
+	}
+
+	@Override
+	public int getTokenIndex() {
+		return index;
+	}
+
+	@Override
+	public int getStartIndex() {
+		return high(offsets);
+	}
+
+	@Override
+	public int getStopIndex() {
+		return low(offsets);
+	}
+
+	@Override
+	public TokenSource getTokenSource() {
+		return origin.source.a;
+	}
+
+	@Override
+	public CharStream getInputStream() {
+		return origin.source.b;
+	}
+
+	/**
+	 * Sets the text of this token. The text of a token is always sliced from
+	 * its input stream, unless the token has been built by the factory with
+	 * an explicit text.
+	 *
+	 * @throws UnsupportedOperationException if this token has been built
+	 *                                           without an explicit text
+	 */
+	@Override
+	public void setText(String text) {
+		throw new UnsupportedOperationException("The text of a compact token is sliced from its input");
+	}
+
+	@Override
+	public void setType(int ttype) {
+		kind = kind(ttype, getChannel());
+	}
+
+	@Override
+	public void setLine(int line) {
+		position = pack(line, getCharPositionInLine());
+	}
+
+	@Override
+	public void setCharPositionInLine(int pos) {
+		position = pack(getLine(), pos);
+	}
+
+	@Override
+	public void setChannel(int channel) {
+		kind = kind(getType(), channel);
+	}
+
+	@Override
+	public void setTokenIndex(int index) {
+		this.index = index;
+	}
+
+	@Override
+	public String toString() {
+		String txt = getText();
+		txt = txt == null ? "<no text>"
+				: txt.replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+		return "[@" + index + "," + getStartIndex() + ":" + getStopIndex() + "='" + txt + "',<" + getType() + ">"
+				+ (getChannel() > 0 ? ",channel=" + getChannel() : "") + "," + getLine() + ":"
+				+ getCharPositionInLine() + "]";
+	}
+
+	/**
+	 * A compact token with an explicit text, e.g., a token conjured up by the
+	 * error recovery of the parser. These are rare, so only they pay for the
+	 * text field.
+	 */
+	static final class WithText extends CompactToken {
+
+		private String text;
+
+		WithText(Origin origin, int type, int channel, int start, int stop, int line, int column, String text) {
+			super(origin, type, channel, start, stop, line, column);
+			this.text = text;
+		}
+
+		@Override
+		public CompactToken copy() {
+			WithText copy = new WithText(getOrigin(), getType(), getChannel(), getStartIndex(), getStopIndex(),
+					getLine(), getCharPositionInLine(), text);
+			copy.setTokenIndex(getTokenIndex());
+			return copy;
+		}
+
+		@Override
+		public String getText() {
+			return text;
+		}
+
+		@Override
+		public void setText(String text) {
+			this.text = text;
+		}
+	}
+}
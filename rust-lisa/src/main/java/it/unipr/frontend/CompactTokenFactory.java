@@ -0,0 +1,85 @@
+package it.unipr.frontend;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+
+/**
+ * Factory of {@link CompactToken}s. No text is built while lexing: the text of
+ * a token is sliced from the input stream only when requested, and the text
+ * of identifiers is then interned in a {@link SymbolTable}, so that all the
+ * occurrences of the same name share a single string, and comparing them is a
+ * reference comparison in the common case. A factory can be shared among
+ * lexers running concurrently.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public class CompactTokenFactory implements TokenFactory<CompactToken> {
+
+	private final SymbolTable symbols;
+
+	/**
+	 * The origin of the last token built by each thread, shared by the
+	 * following tokens of the same input
+	 */
+	private final ThreadLocal<CompactToken.Origin> origins = new ThreadLocal<>();
+
+	/**
+	 * Builds a factory interning identifiers in a table of its own.
+	 */
+	public CompactTokenFactory() {
+		this(new SymbolTable());
+	}
+
+	/**
+	 * Builds a factory interning identifiers in the given table.
+	 *
+	 * @param symbols the table where identifiers are interned
+	 */
+	public CompactTokenFactory(SymbolTable symbols) {
+		this.symbols = symbols;
+	}
+
+	@Override
+	public CompactToken create(Pair<TokenSource, CharStream> source, int type, String text, int channel, int start,
+			int stop, int line, int charPositionInLine) {
+		CompactToken.Origin origin = origins.get();
+		if (origin == null || !origin.isOf(source)) {
+			// lexers keep the same pair for all the tokens of an input
+			origin = new CompactToken.Origin(source, symbols);
+			origins.set(origin);
+		}
+
+		if (text != null)
+			return new CompactToken.WithText(origin, type, channel, start, stop, line, charPositionInLine, text);
+		return new CompactToken(origin, type, channel, start, stop, line, charPositionInLine);
+	}
+
+	@Override
+	public CompactToken create(int type, String text) {
+		return new CompactToken.WithText(new CompactToken.Origin(new Pair<>(null, null), symbols), type, 0, -1, -1,
+				0, -1, text);
+	}
+
+	/**
+	 * Yields the table where this factory interns identifiers.
+	 *
+	 * @return the table of symbols
+	 */
+	public SymbolTable getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * Yields the number of distinct names in the table of this factory,
+	 * including the identifiers whose text has been requested from the tokens
+	 * of this factory.
+	 *
+	 * @return the number of distinct names
+	 */
+	public int getIdentifiers() {
+		return symbols.size();
+	}
+}
@@ -0,0 +1,181 @@
+package it.unipr.frontend;
+
+import it.unipr.cfg.type.TypeRegistry;
+import it.unipr.rust.antlr.RustParser;
+import it.unipr.rust.antlr.RustParser.Block_with_inner_attrsContext;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * The function bodies of a crate that have not been parsed yet (see
+ * {@link RustFrontendOptions#isLazyBodies()}). The CFGs of these functions
+ * are already in the program, but empty: a body is parsed, and the nodes and
+ * edges of its CFG are built, when the CFG is first passed to
+ * {@link #materialize(CFG)}. Bodies can be materialized from any thread.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public final class LazyBodies {
+
+	private final Program program;
+	private final TypeRegistry types;
+
+	/**
+	 * The tokens of the bodies left out from the parse trees, indexed by
+	 * their opening brace
+	 */
+	private final Map<Token, List<Token>> tokens = new HashMap<>();
+
+	/**
+	 * The bodies of the CFGs still to be built, in source order
+	 */
+	private final Map<CFG, Body> pending = new IdentityHashMap<>();
+	private final List<CFG> order = new ArrayList<>();
+
+	/**
+	 * The number of identifiers of the lattice of the types when they were
+	 * last registered in the program
+	 */
+	private int registered = 0;
+
+	private static final class Body {
+		private final List<Token> tokens;
+		private final Function<Block_with_inner_attrsContext, CFG> builder;
+
+		private Body(List<Token> tokens, Function<Block_with_inner_attrsContext, CFG> builder) {
+			this.tokens = tokens;
+			this.builder = builder;
+		}
+	}
+
+	/**
+	 * Builds the bodies of a crate.
+	 *
+	 * @param program the program of the crate
+	 * @param types   the types of the crate
+	 */
+	LazyBodies(Program program, TypeRegistry types) {
+		this.program = program;
+		this.types = types;
+	}
+
+	/**
+	 * Adds the bodies left out from the parse tree of a file.
+	 *
+	 * @param bodies the tokens of the bodies, indexed by their opening brace
+	 */
+	synchronized void addAll(Map<Token, List<Token>> bodies) {
+		tokens.putAll(bodies);
+	}
+
+	/**
+	 * Defers building the body of a CFG, if it has been left out from the
+	 * parse tree.
+	 *
+	 * @param body    the body in the parse tree, that is empty if it has been
+	 *                    left out
+	 * @param cfg     the CFG of the body
+	 * @param builder the function building the nodes and the edges of
+	 *                    {@code cfg} from its whole body
+	 *
+	 * @return whether building {@code cfg} has been deferred
+	 */
+	synchronized boolean defer(Block_with_inner_attrsContext body, CFG cfg,
+			Function<Block_with_inner_attrsContext, CFG> builder) {
+		List<Token> left = tokens.remove(body.getStart());
+		if (left == null)
+			return false;
+
+		pending.put(cfg, new Body(left, builder));
+		order.add(cfg);
+		return true;
+	}
+
+	/**
+	 * Builds the body of the given CFG, if it has not been built yet.
+	 *
+	 * @param cfg the CFG
+	 *
+	 * @return the CFG, with its body
+	 */
+	public synchronized CFG materialize(CFG cfg) {
+		Body body = pending.remove(cfg);
+		if (body == null)
+			return cfg;
+
+		build(body);
+		registerTypes();
+		return cfg;
+	}
+
+	/**
+	 * Builds the bodies of all the CFGs that have not been built yet, in
+	 * source order.
+	 */
+	public synchronized void materializeAll() {
+		for (CFG cfg : order) {
+			Body body = pending.remove(cfg);
+			if (body != null)
+				build(body);
+		}
+
+		order.clear();
+		registerTypes();
+	}
+
+	/**
+	 * Registers in the program the types interned since they were last
+	 * registered, so that building a body only registers the types it has
+	 * introduced.
+	 */
+	synchronized void registerTypes() {
+		registered = RustFrontend.registerTypes(program::registerType, types, registered);
+	}
+
+	private void build(Body body) {
+		RustParser parser = RustParsers.parser(new CommonTokenStream(new ListTokenSource(body.tokens)));
+		Block_with_inner_attrsContext block;
+		try {
+			block = parser.block_with_inner_attrs();
+		} finally {
+			RustParsers.release(parser);
+		}
+
+		TypeRegistry previous = TypeRegistry.bind(types);
+		try {
+			body.builder.apply(block);
+		} finally {
+			TypeRegistry.bind(previous);
+		}
+	}
+
+	/**
+	 * Yields whether the body of the given CFG has still to be built.
+	 *
+	 * @param cfg the CFG
+	 *
+	 * @return {@code true} if and only if {@code cfg} is still empty
+	 */
+	public synchronized boolean isPending(CFG cfg) {
+		return pending.containsKey(cfg);
+	}
+
+	/**
+	 * Yields the number of CFGs whose body has still to be built.
+	 *
+	 * @return the number of pending bodies
+	 */
+	public synchronized int getPending() {
+		return pending.size();
+	}
+}
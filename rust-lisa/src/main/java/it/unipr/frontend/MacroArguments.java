@@ -0,0 +1,87 @@
+package it.unipr.frontend;
+
+import it.unipr.rust.antlr.RustParser;
+import it.unipr.rust.antlr.RustParser.ExprContext;
+import it.unipr.rust.antlr.RustParser.TtContext;
+import java.util.ArrayList;
+import java.util.List;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/**
+ * Parser of the arguments of macro calls. Macro arguments are token trees for
+ * the grammar, so they are parsed again as expressions. Arguments are split
+ * at the commas that are direct children of the token tree, and each of them
+ * is parsed from its own tokens, that keep their position in the source file.
+ * An argument that is not an expression as a whole (e.g., {@code 0; 10} in
+ * {@code vec![0; 10]}) is parsed again from its tokens, leniently, keeping
+ * the expression it starts with. Parsers are pooled (see
+ * {@link RustParsers}).
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+final class MacroArguments {
+
+	private MacroArguments() {
+		// utility class
+	}
+
+	/**
+	 * Parses the arguments of a macro call as expressions.
+	 *
+	 * @param args the token trees that are direct children of the delimited
+	 *                 token tree of the call (i.e., of its
+	 *                 {@code tt_parens}, {@code tt_brackets} or
+	 *                 {@code tt_block})
+	 *
+	 * @return the parsed arguments, in order
+	 */
+	static List<ExprContext> parse(List<TtContext> args) {
+		List<ExprContext> expressions = new ArrayList<>();
+		List<Token> current = new ArrayList<>();
+
+		for (TtContext arg : args)
+			if (RustTokens.is(arg.getChild(0), RustTokens.COMMA)) {
+				parse(current, expressions);
+				current = new ArrayList<>();
+			} else
+				collect(arg, current);
+
+		parse(current, expressions);
+		return expressions;
+	}
+
+	private static void parse(List<Token> tokens, List<ExprContext> expressions) {
+		// skips empty arguments, e.g., after a trailing comma
+		if (tokens.isEmpty())
+			return;
+
+		RustParser parser = RustParsers.parser(new CommonTokenStream(new ListTokenSource(tokens)));
+		// TODO It seems from the grammar that it could be any kind of
+		// block here, but for now we are restricting ourselves to the
+		// expression parsing
+		try {
+			// the first attempt reports no error, as it may be retried
+			ExprContext expression = ParsedFile.tryParse(parser, PredictionMode.LL, RustParser::expr);
+			expressions.add(expression != null ? expression : parser.expr());
+		} finally {
+			RustParsers.release(parser);
+		}
+	}
+
+	private static void collect(ParseTree tree, List<Token> tokens) {
+		if (tree instanceof TerminalNode) {
+			// tokens are copied since token streams overwrite their index
+			Token token = ((TerminalNode) tree).getSymbol();
+			tokens.add(token instanceof CompactToken ? ((CompactToken) token).copy() : new CommonToken(token));
+		} else
+			for (int i = 0; i < tree.getChildCount(); i++)
+				collect(tree.getChild(i), tokens);
+	}
+}
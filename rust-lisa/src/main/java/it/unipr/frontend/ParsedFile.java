@@ -0,0 +1,310 @@
+package it.unipr.frontend;
+
+import it.unipr.rust.antlr.RustLexer;
+import it.unipr.rust.antlr.RustParser;
+import it.unipr.rust.antlr.RustParser.CrateContext;
+import it.unipr.rust.antlr.RustParser.Mod_bodyContext;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+/**
+ * A Rust file, together with its parse tree. If function bodies are parsed
+ * lazily (see {@link RustFrontendOptions#isLazyBodies()}), the tree is the one
+ * of the {@link Skeleton} of the file, and the tokens of the bodies left out
+ * are kept aside.
+ * 
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+final class ParsedFile {
+
+	private static final Function<RustParser, CrateContext> CRATE = RustParser::crate;
+	private static final Function<RustParser, Mod_bodyContext> MOD_BODY = RustParser::mod_body;
+
+	private final String path;
+	private final CrateContext tree;
+	private final long parseTime;
+	private final boolean fallenBack;
+	private final Map<Token, List<Token>> bodies;
+
+	private ParsedFile(String path, CrateContext tree, long parseTime, boolean fallenBack,
+			Map<Token, List<Token>> bodies) {
+		this.path = path;
+		this.tree = tree;
+		this.parseTime = parseTime;
+		this.fallenBack = fallenBack;
+		this.bodies = bodies;
+	}
+
+	/**
+	 * Lexes and parses the Rust file located at {@code path}.
+	 * 
+	 * @param path    the path of the file
+	 * @param options the options of the front-end
+	 * @param tokens  the factory of the tokens of the file
+	 * 
+	 * @return the parsed file
+	 * 
+	 * @throws IOException if anything goes wrong during reading the file
+	 */
+	static ParsedFile parse(String path, RustFrontendOptions options, CompactTokenFactory tokens)
+			throws IOException {
+		long start = System.nanoTime();
+		return parse(path, ByteCharStream.fromFile(path), options, tokens, start);
+	}
+
+	/**
+	 * Lexes and parses a Rust source, with the pooled lexers and parsers of
+	 * the current thread (see {@link RustParsers}).
+	 * 
+	 * @param path    the path of the source
+	 * @param input   the content of the source
+	 * @param options the options of the front-end
+	 * @param tokens  the factory of the tokens of the source
+	 * @param start   the time when reading the source started
+	 * 
+	 * @return the parsed source
+	 */
+	static ParsedFile parse(String path, CharStream input, RustFrontendOptions options,
+			CompactTokenFactory tokens, long start) {
+		RustLexer lexer = RustParsers.lexer(input, tokens);
+		try {
+			TokenSource source = lexer;
+
+			if (options.isLazyBodies() || options.isParallelParsing()) {
+				CommonTokenStream all = new CommonTokenStream(lexer);
+				all.fill();
+				List<Token> skeleton = all.getTokens();
+				Map<Token, List<Token>> bodies = Collections.emptyMap();
+
+				if (options.isLazyBodies()) {
+					Skeleton found = Skeleton.of(skeleton);
+					skeleton = found.getTokens();
+					bodies = found.getBodies();
+				}
+
+				if (options.isParallelParsing()) {
+					ParsedFile parsed = parseItems(path, skeleton, bodies, options, start);
+					if (parsed != null)
+						return parsed;
+				} else if (!bodies.isEmpty()) {
+					RustParser parser = RustParsers.parser(new CommonTokenStream(new ListTokenSource(skeleton)));
+					CrateContext tree = options.isTwoStageParsing() ? tryParse(parser, PredictionMode.SLL, CRATE)
+							: null;
+					boolean fallenBack = tree == null && options.isTwoStageParsing();
+					if (tree == null)
+						tree = tryParse(parser, PredictionMode.LL, CRATE);
+					if (tree != null)
+						return parsed(path, parser, tree, start, fallenBack, bodies, options);
+					RustParsers.release(parser);
+				}
+
+				// the skeleton and the items are found without parsing, so
+				// they might be wrong where the whole file is not: in that
+				// case, or if there is nothing to leave out or to split, the
+				// whole file is parsed
+				source = new ListTokenSource(all.getTokens());
+			}
+
+			RustParser parser = RustParsers.parser(new CommonTokenStream(source));
+
+			if (!options.isTwoStageParsing())
+				return parsed(path, parser, parser.crate(), start, false, Collections.emptyMap(), options);
+
+			// first stage: SLL prediction, bailing out at the first error
+			// without reporting it, since the input might just need full
+			// context to be parsed
+			CrateContext tree = tryParse(parser, PredictionMode.SLL, CRATE);
+
+			// second stage: full LL prediction, as in the one-stage mode
+			boolean fallenBack = tree == null;
+			if (fallenBack)
+				tree = parser.crate();
+
+			return parsed(path, parser, tree, start, fallenBack, Collections.emptyMap(), options);
+		} finally {
+			RustParsers.release(lexer);
+		}
+	}
+
+	/**
+	 * Yields a parsed source, handing its parser to the inspector of the
+	 * options, if any, and then back to its pool.
+	 */
+	private static ParsedFile parsed(String path, RustParser parser, CrateContext tree, long start,
+			boolean fallenBack, Map<Token, List<Token>> bodies, RustFrontendOptions options) {
+		long parseTime = System.nanoTime() - start;
+		inspect(parser, options);
+		RustParsers.release(parser);
+		return new ParsedFile(path, tree, parseTime, fallenBack, bodies);
+	}
+
+	private static void inspect(RustParser parser, RustFrontendOptions options) {
+		if (options.getParserInspector() != null)
+			options.getParserInspector().accept(parser);
+	}
+
+	/**
+	 * Parses the top-level items of a file in parallel, on the common
+	 * {@link ForkJoinPool}, each slice of the items with its own parser. The
+	 * slices are then joined into a single parse tree, with the same items as
+	 * if the file were parsed at once.
+	 * 
+	 * @param path    the path of the file
+	 * @param tokens  the tokens of the file, ending with {@link Token#EOF}
+	 * @param bodies  the function bodies left out from {@code tokens}
+	 * @param options the options of the front-end
+	 * @param start   the time when lexing started
+	 * 
+	 * @return the parsed file, or {@code null} if parsing any slice failed
+	 */
+	private static ParsedFile parseItems(String path, List<Token> tokens, Map<Token, List<Token>> bodies,
+			RustFrontendOptions options, long start) {
+		List<List<Token>> slices = TopLevelItems.slices(tokens, ForkJoinPool.commonPool().getParallelism() * 4);
+
+		List<ForkJoinTask<Mod_bodyContext>> tasks = new ArrayList<>(slices.size());
+		boolean[] fallenBack = new boolean[1];
+		for (List<Token> slice : slices)
+			tasks.add(ForkJoinPool.commonPool().submit(() -> {
+				RustParser parser = RustParsers.parser(new CommonTokenStream(new ListTokenSource(slice)));
+				Mod_bodyContext items = options.isTwoStageParsing() ? tryParse(parser, PredictionMode.SLL, MOD_BODY)
+						: null;
+				if (items == null && options.isTwoStageParsing())
+					fallenBack[0] = true;
+				if (items == null)
+					items = tryParse(parser, PredictionMode.LL, MOD_BODY);
+
+				if (items != null)
+					inspect(parser, options);
+				RustParsers.release(parser);
+				return items;
+			}));
+
+		CrateContext crate = new CrateContext(null, ATNState.INVALID_STATE_NUMBER);
+		Mod_bodyContext body = new Mod_bodyContext(crate, ATNState.INVALID_STATE_NUMBER);
+		crate.addAnyChild(body);
+		for (ForkJoinTask<Mod_bodyContext> task : tasks) {
+			Mod_bodyContext items = task.join();
+			if (items == null)
+				return null;
+
+			if (items.children != null)
+				for (ParseTree item : items.children) {
+					item.setParent(body);
+					body.addAnyChild(item);
+				}
+		}
+
+		Token eof = tokens.get(tokens.size() - 1);
+		crate.addAnyChild(new TerminalNodeImpl(eof)).setParent(crate);
+		body.start = crate.start = tokens.get(0);
+		body.stop = tokens.size() > 1 ? tokens.get(tokens.size() - 2) : eof;
+		crate.stop = eof;
+
+		return new ParsedFile(path, crate, System.nanoTime() - start, fallenBack[0], bodies);
+	}
+
+	/**
+	 * Parses a rule with the given prediction mode, bailing out at the first
+	 * error without reporting it. The rule must span all the tokens of the
+	 * parser. The parser is then restored to full LL prediction and to the
+	 * default error handling.
+	 * 
+	 * @param <T>    the type of the parsed rule
+	 * @param parser the parser
+	 * @param mode   the prediction mode
+	 * @param rule   the rule to parse
+	 * 
+	 * @return the parsed rule, or {@code null} if parsing failed, in which
+	 *             case the parser is rewound to the first token
+	 */
+	static <T extends ParserRuleContext> T tryParse(RustParser parser, PredictionMode mode,
+			Function<RustParser, T> rule) {
+		parser.getInterpreter().setPredictionMode(mode);
+		parser.removeErrorListeners();
+		parser.setErrorHandler(new BailErrorStrategy());
+
+		try {
+			T tree = rule.apply(parser);
+			if (parser.getTokenStream().LA(1) != Token.EOF)
+				throw new ParseCancellationException("The rule does not span all the tokens");
+			return tree;
+		} catch (ParseCancellationException e) {
+			parser.getTokenStream().seek(0);
+			parser.reset();
+			return null;
+		} finally {
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+			parser.setErrorHandler(new DefaultErrorStrategy());
+		}
+	}
+
+	/**
+	 * Yields the path of this file.
+	 * 
+	 * @return the path
+	 */
+	String getPath() {
+		return path;
+	}
+
+	/**
+	 * Yields the parse tree of this file.
+	 * 
+	 * @return the parse tree
+	 */
+	CrateContext getTree() {
+		return tree;
+	}
+
+	/**
+	 * Yields the time, in nanoseconds, taken to lex and parse this file.
+	 * 
+	 * @return the parse time
+	 */
+	long getParseTime() {
+		return parseTime;
+	}
+
+	/**
+	 * Yields whether parsing this file had to fall back from SLL to full LL
+	 * prediction.
+	 * 
+	 * @return {@code true} if and only if the file has been parsed twice
+	 */
+	boolean hasFallenBack() {
+		return fallenBack;
+	}
+
+	/**
+	 * Yields the tokens of the function bodies left out from the parse tree of
+	 * this file, indexed by their opening brace. This is empty unless bodies
+	 * are parsed lazily.
+	 * 
+	 * @return the bodies left out
+	 */
+	Map<Token, List<Token>> getBodies() {
+		return bodies;
+	}
+}
@@ -1,6 +1,8 @@
 package it.unipr.frontend;
 
-import static it.unipr.frontend.RustFrontendUtilities.locationOf;
+import static it.unipr.frontend.RustFrontendUtilities.nameOf;
+import static it.unipr.frontend.RustTokens.is;
+import static it.unipr.frontend.RustTokens.typeOf;
 
 import it.unipr.cfg.expression.RustAccessMemberExpression;
 import it.unipr.cfg.expression.RustArrayAccess;
@@ -50,6 +52,7 @@ import it.unipr.cfg.statement.RustAssignment;
 import it.unipr.cfg.statement.RustLetAssignment;
 import it.unipr.cfg.type.RustType;
 import it.unipr.cfg.type.RustUnitType;
+import it.unipr.cfg.type.composite.RustReferenceType;
 import it.unipr.cfg.type.composite.RustStructType;
 import it.unipr.cfg.type.composite.enums.RustEnumType;
 import it.unipr.cfg.utils.RustAccessResolver;
@@ -62,12 +65,12 @@ import it.unipr.cfg.utils.RustMatchOrKeeper;
 import it.unipr.cfg.utils.RustMethodKeeper;
 import it.unipr.cfg.utils.RustTupleAccessKeeper;
 import it.unipr.rust.antlr.RustBaseVisitor;
-import it.unipr.rust.antlr.RustLexer;
 import it.unipr.rust.antlr.RustParser;
 import it.unipr.rust.antlr.RustParser.*;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.Global;
 import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.Unit;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CFGDescriptor;
@@ -92,12 +95,17 @@ import it.unive.lisa.util.datastructures.graph.AdjacencyMatrix;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.apache.commons.lang3.tuple.Pair;
@@ -116,6 +124,11 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	 */
 	private final String filePath;
 
+	/**
+	 * Locations of the Rust program to be analyzed.
+	 */
+	private final SourceLocations locations;
+
 	/**
 	 * Reference to the LiSA program that it is currently analyzed.
 	 */
@@ -126,24 +139,77 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	 */
 	private final CompilationUnit unit;
 
+	/**
+	 * Table of the names of the program that it is currently analyzed.
+	 */
+	private final SymbolTable symbols;
+
+	/**
+	 * Function bodies left out from the parse trees, still to be parsed.
+	 */
+	private final LazyBodies bodies;
+
+	/**
+	 * Options of the front-end.
+	 */
+	private final RustFrontendOptions options;
+
 	/**
 	 * Current control-flow graph to which code members should be added.
 	 */
 	private CFG currentCfg;
 
+	/**
+	 * Return expressions added to the current control-flow graph, in order,
+	 * that are replaced when the graph is finalized. Equal expressions are the
+	 * same node of the graph, so they are recorded once.
+	 */
+	private Set<RustReturnExpression> returns = new LinkedHashSet<>();
+
+	/**
+	 * Join nodes of the current control-flow graph that have not been added
+	 * to it (see {@link RustFrontendOptions#isJoinFreeLowering()}).
+	 */
+	private Map<NoOp, PendingJoin> joins = new IdentityHashMap<>();
+
+	/**
+	 * The number of loops over ranges enclosing the statement being visited
+	 * (see {@link RustFrontendOptions#isCountedRangeLoops()}).
+	 */
+	private int rangeLoops = 0;
+
+	/**
+	 * A join node that is not in the graph: the edges reaching it are kept
+	 * aside until its successor is known, and are then redirected there.
+	 */
+	private static final class PendingJoin {
+		private final List<Edge> incoming = new ArrayList<>();
+		private Statement next;
+	}
+
 	/**
 	 * Builds a code member visitor for Rust.
 	 * 
-	 * @param filePath file path of the Rust program to be analyzed
-	 * @param program  reference to the LiSA program that it is currently
-	 *                     analyzed
-	 * @param unit     current compilation unit to which code members should be
-	 *                     added
+	 * @param locations locations of the Rust program to be analyzed
+	 * @param program   reference to the LiSA program that it is currently
+	 *                      analyzed
+	 * @param unit      current compilation unit to which code members should
+	 *                      be added
+	 * @param symbols   table of the names of the program that it is currently
+	 *                      analyzed
+	 * @param bodies    function bodies left out from the parse trees, still to
+	 *                      be parsed
+	 * @param options   options of the front-end
 	 */
-	public RustCodeMemberVisitor(String filePath, Program program, CompilationUnit unit) {
-		this.filePath = filePath;
+	public RustCodeMemberVisitor(SourceLocations locations, Program program, CompilationUnit unit,
+			SymbolTable symbols, LazyBodies bodies, RustFrontendOptions options) {
+		this.filePath = locations.getFilePath();
+		this.locations = locations;
 		this.program = program;
 		this.unit = unit;
+		this.symbols = symbols;
+		this.bodies = bodies;
+		this.options = options;
 	}
 
 	/**
@@ -203,18 +269,22 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	 * Perform a lot of operation needed in order to prepare the CFG for the
 	 * use.
 	 * 
-	 * @param ctx        the context in which to operate
+	 * @param location   the location of the function of this CFG
 	 * @param returnType the return type of this CFG (e.g. return type of a
 	 *                       function)
 	 * 
 	 * @return the ready-to-use CFG
 	 */
-	private CFG prepareCFG(ParserRuleContext ctx, Type returnType) {
+	private CFG prepareCFG(SourceCodeLocation location, Type returnType) {
+		addLastJoins();
+		if (options.getLoweringInspector() != null)
+			options.getLoweringInspector().accept(currentCfg);
+
 		Collection<Statement> nodes = currentCfg.getNodes();
 
 		// Substitute exit points wit
 		if (returnType instanceof RustUnitType) {
-			Ret ret = new Ret(currentCfg, locationOf(ctx, filePath));
+			Ret ret = new Ret(currentCfg, location);
 
 			// Add possible missing ret as final instruction
 			if (currentCfg.getAllExitpoints().isEmpty()) {
@@ -231,14 +301,12 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 				currentCfg.addNode(ret);
 
 			// Substitute return with ret nodes
-			for (Statement node : nodes) {
-				if (node instanceof RustReturnExpression) {
-					NoOp noOp = new NoOp(currentCfg, locationOf(ctx, filePath));
-					currentCfg.addNode(noOp);
+			for (RustReturnExpression node : returns) {
+				NoOp noOp = new NoOp(currentCfg, location);
+				currentCfg.addNode(noOp);
 
-					switchLeafNodes(node, noOp);
-					currentCfg.addEdge(new SequentialEdge(noOp, ret));
-				}
+				switchLeafNodes(node, noOp);
+				currentCfg.addEdge(new SequentialEdge(noOp, ret));
 			}
 		}
 		// Substitute inner RustExplicitReturn with return statements
@@ -257,7 +325,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			if (currentCfg.getNodes().size() == 1) {
 				Statement onlyNode = nodes.stream().findFirst().get();
 
-				NoOp noOp = new NoOp(currentCfg, locationOf(ctx, filePath));
+				NoOp noOp = new NoOp(currentCfg, location);
 				currentCfg.addNode(noOp, true);
 				currentCfg.getEntrypoints().remove(onlyNode);
 
@@ -265,35 +333,40 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 				currentCfg.getAllExitpoints().add(onlyNode);
 			}
 
-			for (Statement stmt : nodes)
-				if (stmt instanceof RustReturnExpression) {
-					Expression value = ((RustReturnExpression) stmt).getSubExpression();
-
-					Return ret = new Return(currentCfg, locationOf(ctx, filePath), value);
-					currentCfg.addNode(ret);
+			for (RustReturnExpression stmt : returns) {
+				Return ret = new Return(currentCfg, location, stmt.getSubExpression());
+				currentCfg.addNode(ret);
 
-					switchLeafNodes(stmt, ret);
-				}
+				switchLeafNodes(stmt, ret);
+			}
 		}
 
 		currentCfg.simplify();
+		returns = new LinkedHashSet<>();
+
+		// a branch whose true and false edges reach the same node does not
+		// branch: false edges are indexed by their ends, so that all such
+		// pairs are found in a single pass over the edges
+		AdjacencyMatrix<Statement, Edge, CFG> adj = currentCfg.getAdjacencyMatrix();
+		Map<Pair<Statement, Statement>, Edge> falseEdges = new HashMap<>();
+		List<Edge> trueEdges = new ArrayList<>();
+		for (Edge e : adj.getEdges())
+			if (e instanceof FalseEdge)
+				falseEdges.put(Pair.of(e.getSource(), e.getDestination()), e);
+			else if (e instanceof TrueEdge)
+				trueEdges.add(e);
 
 		Set<Edge> toRemove = new HashSet<>();
 		Set<Edge> toAdd = new HashSet<>();
+		for (Edge e : trueEdges) {
+			Edge ingoing = falseEdges.get(Pair.of(e.getSource(), e.getDestination()));
+			if (ingoing != null) {
+				toRemove.add(e);
+				toRemove.add(ingoing);
 
-		AdjacencyMatrix<Statement, Edge, CFG> adj = currentCfg.getAdjacencyMatrix();
-		for (Edge e : adj.getEdges())
-			if (e instanceof TrueEdge) {
-				Collection<Edge> ingoinEdges = adj.getIngoingEdges(e.getDestination());
-				for (Edge ingoing : ingoinEdges) {
-					if (ingoing instanceof FalseEdge && ingoing.getSource().equals(e.getSource())) {
-						toRemove.add(e);
-						toRemove.add(ingoing);
-
-						toAdd.add(new SequentialEdge(e.getSource(), e.getDestination()));
-					}
-				}
+				toAdd.add(new SequentialEdge(e.getSource(), e.getDestination()));
 			}
+		}
 
 		toRemove.forEach(r -> adj.removeEdge(r));
 		toAdd.forEach(a -> adj.addEdge(a));
@@ -305,23 +378,145 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	public CFG visitFn_decl(Fn_declContext ctx) {
 		String fnName = getFnName(ctx.fn_head());
 
-		Type returnType = RustUnitType.getInstance();
-		if (ctx.fn_rtype() != null)
-			returnType = new RustTypeVisitor(filePath, unit).visitFn_rtype(ctx.fn_rtype());
+		Type returnType = ctx.fn_rtype() == null ? RustUnitType.getInstance()
+				: new RustTypeVisitor(locations, unit, symbols).visitFn_rtype(ctx.fn_rtype());
 
-		CFGDescriptor cfgDesc = new CFGDescriptor(locationOf(ctx, filePath), unit, false, fnName, returnType,
-				new Parameter[0]);
+		// the location is kept instead of the context, that deferred bodies
+		// would otherwise retain
+		SourceCodeLocation location = locations.of(ctx);
+		List<Parameter> formals = ctx.param_list() == null ? Collections.emptyList()
+				: visitParam_list(ctx.param_list());
+		CFGDescriptor cfgDesc = new CFGDescriptor(location, unit, false, fnName, returnType,
+				formals.toArray(new Parameter[0]));
 		currentCfg = new CFG(cfgDesc);
 
-		Pair<Statement, Statement> block = visitBlock_with_inner_attrs(ctx.block_with_inner_attrs());
-		currentCfg.getEntrypoints().add(block.getLeft());
+		return visitBody(ctx.block_with_inner_attrs(), body -> {
+			Pair<Statement, Statement> block = visitBlock_with_inner_attrs(body);
+			addEntrypoint(block.getLeft());
 
-		return prepareCFG(ctx, returnType);
+			return prepareCFG(location, returnType);
+		});
+	}
+
+	/**
+	 * Builds the body of the current CFG, or defers building it if the body
+	 * has been left out from the parse tree.
+	 * 
+	 * @param body    the body in the parse tree
+	 * @param builder the function building the current CFG from its body
+	 * 
+	 * @return the current CFG
+	 */
+	private CFG visitBody(Block_with_inner_attrsContext body,
+			Function<Block_with_inner_attrsContext, CFG> builder) {
+		CFG cfg = currentCfg;
+		boolean deferred = bodies.defer(body, cfg, whole -> {
+			// this visitor might have moved on to other CFGs in the meanwhile
+			currentCfg = cfg;
+			returns = new LinkedHashSet<>();
+			joins = new IdentityHashMap<>();
+			rangeLoops = 0;
+			return builder.apply(whole);
+		});
+
+		if (deferred)
+			return cfg;
+
+		returns = new LinkedHashSet<>();
+		joins = new IdentityHashMap<>();
+		rangeLoops = 0;
+		return builder.apply(body);
+	}
+
+	private void addNode(Statement node) {
+		currentCfg.addNode(node);
+		if (node instanceof RustReturnExpression)
+			returns.add((RustReturnExpression) node);
+	}
+
+	/**
+	 * Yields a new join node, or empty statement, of the current CFG. With
+	 * join-free lowering, the node is not added to the graph: edges
+	 * reaching it are redirected to its successor, as soon as it is known, and
+	 * the node is added only if it has none.
+	 * 
+	 * @param location the location of the node
+	 * 
+	 * @return the join node
+	 */
+	private NoOp join(SourceCodeLocation location) {
+		NoOp join = new NoOp(currentCfg, location);
+		if (options.isJoinFreeLowering())
+			joins.put(join, new PendingJoin());
+		else
+			currentCfg.addNode(join);
+		return join;
+	}
+
+	private void addEdge(Edge edge) {
+		Statement source = edge.getSource();
+		PendingJoin from = joins.get(source);
+		if (from != null && (from.next != null || !(edge instanceof SequentialEdge)
+				|| edge.getDestination() == source)) {
+			// a join that branches is a real one
+			addJoin((NoOp) source);
+			from = null;
+		}
+
+		if (from != null) {
+			from.next = edge.getDestination();
+			for (Edge incoming : from.incoming)
+				addEdge(redirect(incoming, from.next));
+			from.incoming.clear();
+			return;
+		}
+
+		PendingJoin to = joins.get(edge.getDestination());
+		if (to != null && to.next != null)
+			addEdge(redirect(edge, to.next));
+		else if (to != null)
+			to.incoming.add(edge);
+		else
+			currentCfg.addEdge(edge);
+	}
+
+	private static Edge redirect(Edge edge, Statement destination) {
+		if (edge instanceof TrueEdge)
+			return new TrueEdge(edge.getSource(), destination);
+		if (edge instanceof FalseEdge)
+			return new FalseEdge(edge.getSource(), destination);
+		return new SequentialEdge(edge.getSource(), destination);
+	}
+
+	private void addJoin(NoOp join) {
+		PendingJoin pending = joins.remove(join);
+		currentCfg.addNode(join);
+		if (pending.next != null)
+			addEdge(new SequentialEdge(join, pending.next));
+		for (Edge incoming : pending.incoming)
+			addEdge(incoming);
+	}
+
+	private void addEntrypoint(Statement entry) {
+		if (joins.containsKey(entry))
+			addJoin((NoOp) entry);
+		currentCfg.getEntrypoints().add(entry);
+	}
+
+	/**
+	 * Adds to the current CFG the join nodes that are reached by some edge,
+	 * but that have no successor, i.e., that end the body of the CFG.
+	 */
+	private void addLastJoins() {
+		for (Map.Entry<NoOp, PendingJoin> join : new ArrayList<>(joins.entrySet()))
+			if (join.getValue().next == null && !join.getValue().incoming.isEmpty())
+				addJoin(join.getKey());
+		joins = new IdentityHashMap<>();
 	}
 
 	private String getFnName(Fn_headContext fnHead) {
 		// TODO skipping: 'const'? 'unsafe'? extern_abi? ty_params?
-		return fnHead.ident().getText();
+		return nameOf(fnHead.ident(), symbols);
 	}
 
 	@Override
@@ -348,9 +543,9 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		List<Expression> arguments = visitItem_macro_tail(ctx.item_macro_tail());
 
-		return new UnresolvedCall(currentCfg, locationOf(ctx, filePath),
+		return new UnresolvedCall(currentCfg, locations.of(ctx),
 				RustFrontend.PARAMETER_ASSIGN_STRATEGY, RustFrontend.METHOD_MATCHING_STRATEGY,
-				RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.STATIC, "", macroPath.toString() + "!",
+				RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.STATIC, "", symbols.name(macroPath.toString() + "!"),
 				RustFrontend.EVALUATION_ORDER, Untyped.INSTANCE, arguments.toArray(new Expression[0]));
 	}
 
@@ -358,41 +553,42 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	public Expression visitItem_macro_path(Item_macro_pathContext ctx) {
 		if (ctx.item_macro_path_parent() != null) {
 			Expression parent = visitItem_macro_path_parent(ctx.item_macro_path_parent());
-			Expression child = new RustVariableRef(currentCfg, locationOf(ctx, filePath), ctx.ident().getText(), false);
+			Expression child = new RustVariableRef(currentCfg, locations.of(ctx), nameOf(ctx.ident(), symbols),
+					false);
 
-			Global global = new Global(locationOf(ctx, filePath), child.toString());
+			Global global = new Global(locations.of(ctx), symbols.name(child.toString()));
 			// TODO check if the toString is enough or it needs something else
 			Unit unit = program.getUnit(parent.toString());
 
-			return new AccessGlobal(currentCfg, locationOf(ctx, filePath), unit, global);
+			return new AccessGlobal(currentCfg, locations.of(ctx), unit, global);
 		}
 
-		return new RustVariableRef(currentCfg, locationOf(ctx, filePath), ctx.ident().getText(), false);
+		return new RustVariableRef(currentCfg, locations.of(ctx), nameOf(ctx.ident(), symbols), false);
 	}
 
 	@Override
 	public Expression visitItem_macro_path_parent(Item_macro_path_parentContext ctx) {
-		if (ctx.getChild(0).getText().equals("self"))
-			return new RustVariableRef(currentCfg, locationOf(ctx, filePath), "self", false);
+		if (is(ctx.getChild(0), RustTokens.SELF))
+			return new RustVariableRef(currentCfg, locations.of(ctx), symbols.name("self"), false);
 		else if (ctx.item_macro_path_parent() == null)
 			return visitItem_macro_path_segment(ctx.item_macro_path_segment());
 
 		Expression child = visitItem_macro_path_segment(ctx.item_macro_path_segment());
 		Expression parent = visitItem_macro_path_parent(ctx.item_macro_path_parent());
 
-		Global global = new Global(locationOf(ctx, filePath), child.toString());
+		Global global = new Global(locations.of(ctx), symbols.name(child.toString()));
 		// TODO check if the toString is enough or it needs something else
 		Unit unit = program.getUnit(parent.toString());
 
-		return new AccessGlobal(currentCfg, locationOf(ctx, filePath), unit, global);
+		return new AccessGlobal(currentCfg, locations.of(ctx), unit, global);
 	}
 
 	@Override
 	public Expression visitItem_macro_path_segment(Item_macro_path_segmentContext ctx) {
-		if (ctx.getText().equals("super"))
-			return new RustVariableRef(currentCfg, locationOf(ctx, filePath), "super", false);
+		if (ctx.ident() == null)
+			return new RustVariableRef(currentCfg, locations.of(ctx), symbols.name("super"), false);
 
-		return new RustVariableRef(currentCfg, locationOf(ctx, filePath), ctx.ident().getText(), false);
+		return new RustVariableRef(currentCfg, locations.of(ctx), nameOf(ctx.ident(), symbols), false);
 	}
 
 	@Override
@@ -493,21 +689,25 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	public CFG visitMethod_decl(Method_declContext ctx) {
 		String methodName = getFnName(ctx.fn_head());
 
-		Type returnType = RustUnitType.getInstance();
-		if (ctx.fn_rtype() != null)
-			returnType = new RustTypeVisitor(filePath, unit).visitFn_rtype(ctx.fn_rtype());
+		Type returnType = ctx.fn_rtype() == null ? RustUnitType.getInstance()
+				: new RustTypeVisitor(locations, unit, symbols).visitFn_rtype(ctx.fn_rtype());
 
-		CFGDescriptor cfgDesc = new CFGDescriptor(locationOf(ctx, filePath), unit, false, methodName, returnType,
-				new Parameter[0]);
+		SourceCodeLocation location = locations.of(ctx);
+		List<Parameter> formals = ctx.method_param_list() == null ? Collections.emptyList()
+				: visitMethod_param_list(ctx.method_param_list());
+		CFGDescriptor cfgDesc = new CFGDescriptor(location, unit, false, methodName, returnType,
+				formals.toArray(new Parameter[0]));
 
 		currentCfg = new CFG(cfgDesc);
-		NoOp initPoint = new NoOp(currentCfg, locationOf(ctx, filePath));
+		NoOp initPoint = new NoOp(currentCfg, location);
 		currentCfg.addNode(initPoint, true);
 
-		Pair<Statement, Statement> block = visitBlock_with_inner_attrs(ctx.block_with_inner_attrs());
-		currentCfg.getEntrypoints().add(block.getLeft());
+		return visitBody(ctx.block_with_inner_attrs(), body -> {
+			Pair<Statement, Statement> block = visitBlock_with_inner_attrs(body);
+			addEntrypoint(block.getLeft());
 
-		return prepareCFG(ctx, returnType);
+			return prepareCFG(location, returnType);
+		});
 	}
 
 	@Override
@@ -530,22 +730,39 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 	@Override
 	public Parameter visitParam(ParamContext ctx) {
-		Expression expression = visitPat(ctx.pat());
+		// parameters are visited before the CFG they belong to is built: the
+		// pattern is not turned into an expression
+		PatContext pat = ctx.pat();
+		String name;
+		if (pat.ident() != null)
+			name = nameOf(pat.ident(), symbols);
+		else if (pat.pat_no_mut().ident() != null)
+			name = nameOf(pat.pat_no_mut().ident(), symbols);
+		else
+			// TODO destructuring patterns are kept as they are written
+			name = symbols.name(pat.getText());
+
 		Type type = visitParam_ty(ctx.param_ty());
 
-		return new Parameter(locationOf(ctx, filePath), expression.toString(), type);
+		return new Parameter(locations.of(ctx), name, type);
 	}
 
 	@Override
 	public Type visitParam_ty(Param_tyContext ctx) {
 		// TODO skipping second production
-		return new RustTypeVisitor(filePath, unit).visitTy_sum(ctx.ty_sum());
+		if (ctx.ty_sum() == null)
+			return Untyped.INSTANCE;
+		return new RustTypeVisitor(locations, unit, symbols).visitTy_sum(ctx.ty_sum());
 	}
 
 	@Override
-	public Object visitParam_list(Param_listContext ctx) {
-		// TODO Auto-generated method stub
-		return null;
+	public List<Parameter> visitParam_list(Param_listContext ctx) {
+		List<Parameter> parameters = new ArrayList<>();
+
+		for (ParamContext pCtx : ctx.param())
+			parameters.add(visitParam(pCtx));
+
+		return parameters;
 	}
 
 	@Override
@@ -562,16 +779,18 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 	@Override
 	public Parameter visitSelf_param(Self_paramContext ctx) {
-		// TODO Skipping second production
-
 		// TODO as of now, mutability in params requires more infrastructure
-		boolean mutability = false;
-		if (ctx.getChild(0).getText().equals("mut"))
-			mutability = true;
-
-		Type type = new RustTypeVisitor(filePath, unit).visitTy_sum(ctx.ty_sum());
+		Type type;
+		if (ctx.ty_sum() != null)
+			type = new RustTypeVisitor(locations, unit, symbols).visitTy_sum(ctx.ty_sum());
+		else if (is(ctx.getChild(0), RustTokens.AND))
+			// &self and &mut self borrow the struct of the impl block
+			type = new RustReferenceType(RustStructType.get(unit.getName()),
+					ctx.children.stream().anyMatch(c -> is(c, RustTokens.MUT)));
+		else
+			type = RustStructType.get(unit.getName());
 
-		return new Parameter(locationOf(ctx, filePath), "self", type);
+		return new Parameter(locations.of(ctx), symbols.name("self"), type);
 	}
 
 	@Override
@@ -683,7 +902,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	public Type visitImpl_what(Impl_whatContext ctx) {
 		// TODO Skipping trait implementation for now and parsing only the last
 		// rule
-		return new RustTypeVisitor(filePath, unit).visitTy_sum(ctx.ty_sum(0));
+		return new RustTypeVisitor(locations, unit, symbols).visitTy_sum(ctx.ty_sum(0));
 	}
 
 	@Override
@@ -731,47 +950,32 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	 * Parses the arguments inside a tt block (e.g. a macro call) and returns
 	 * them.
 	 * 
-	 * @param ctx the context to be used
+	 * @param args the token trees inside the block
 	 * 
 	 * @return a {@link List} of {@link Expression} that signifies the macro
 	 *             parameters
 	 */
-	private List<Expression> ttParseArguments(ParserRuleContext ctx) {
-		String context = ctx.getText();
-		String[] args = context.substring(1, context.length() - 1).split(",");
-
+	private List<Expression> ttParseArguments(List<TtContext> args) {
 		List<Expression> expressions = new ArrayList<>();
-
-		if (!(args[0].isBlank())) { // avoid <EOF>
-			for (String macroArg : args) {
-				RustLexer lexer = new RustLexer(CharStreams.fromString(macroArg));
-				RustParser parser = new RustParser(new CommonTokenStream(lexer));
-
-				// TODO It seems from the grammar that it could be any kind of
-				// block here, but for now we are restricting ourselves to the
-				// expression parsing
-				ParseTree tree = parser.expr();
-				Expression expr = visitExpr((ExprContext) tree);
-				expressions.add(expr);
-			}
-		}
+		for (ExprContext arg : MacroArguments.parse(args))
+			expressions.add(visitExpr(arg));
 
 		return expressions;
 	}
 
 	@Override
 	public List<Expression> visitTt_parens(Tt_parensContext ctx) {
-		return ttParseArguments(ctx);
+		return ttParseArguments(ctx.tt());
 	}
 
 	@Override
 	public List<Expression> visitTt_brackets(Tt_bracketsContext ctx) {
-		return ttParseArguments(ctx);
+		return ttParseArguments(ctx.tt());
 	}
 
 	@Override
 	public List<Expression> visitTt_block(Tt_blockContext ctx) {
-		return ttParseArguments(ctx);
+		return ttParseArguments(ctx.tt());
 	}
 
 	@Override
@@ -786,12 +990,12 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Expression child = visitPath_segment_no_super(ctx.path_segment_no_super());
 
 			if (child instanceof RustVariableRef) {
-				Global global = new Global(locationOf(ctx, filePath), child.toString());
+				Global global = new Global(locations.of(ctx), symbols.name(child.toString()));
 				// TODO check if the toString is enough or it need something
 				// else
 				Unit unit = program.getUnit(parent.toString());
 
-				return new AccessGlobal(currentCfg, locationOf(ctx, filePath), unit, global);
+				return new AccessGlobal(currentCfg, locations.of(ctx), unit, global);
 			}
 
 			throw new UnsupportedOperationException(ctx.getText());
@@ -803,8 +1007,8 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	@Override
 	public Expression visitPath_parent(Path_parentContext ctx) {
 		// TODO skipping "'<' ty_sum as_trait? '>'" production
-		if (ctx.getChild(0).getText().equals("self")) {
-			return new RustVariableRef(currentCfg, locationOf(ctx, filePath), "self", false);
+		if (is(ctx.getChild(0), RustTokens.SELF)) {
+			return new RustVariableRef(currentCfg, locations.of(ctx), symbols.name("self"), false);
 		} else if (ctx.path_parent() == null) {
 			return visitPath_segment(ctx.path_segment());
 		}
@@ -813,10 +1017,10 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		Expression parent = visitPath_parent(ctx.path_parent());
 
 		if (child instanceof RustVariableRef) {
-			Global global = new Global(locationOf(ctx, filePath), child.toString());
+			Global global = new Global(locations.of(ctx), symbols.name(child.toString()));
 			// TODO check if the toString is enough or it need something else
 			Unit unit = program.getUnit(parent.toString());
-			return new AccessGlobal(currentCfg, locationOf(ctx, filePath), unit, global);
+			return new AccessGlobal(currentCfg, locations.of(ctx), unit, global);
 		}
 
 		throw new UnsupportedOperationException(ctx.getText());
@@ -833,7 +1037,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		if (ctx.path_segment_no_super() != null)
 			return visitPath_segment_no_super(ctx.path_segment_no_super());
 
-		return new RustVariableRef(currentCfg, locationOf(ctx, filePath), "super", false);
+		return new RustVariableRef(currentCfg, locations.of(ctx), symbols.name("super"), false);
 	}
 
 	@Override
@@ -845,9 +1049,9 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	@Override
 	public Expression visitSimple_path_segment(Simple_path_segmentContext ctx) {
 		if (ctx.getChild(0).getText().equals("Self"))
-			return new RustVariableRef(currentCfg, locationOf(ctx, filePath), "Self", false);
+			return new RustVariableRef(currentCfg, locations.of(ctx), symbols.name("Self"), false);
 
-		return new RustVariableRef(currentCfg, locationOf(ctx, filePath), ctx.ident().getText(), false);
+		return new RustVariableRef(currentCfg, locations.of(ctx), nameOf(ctx.ident(), symbols), false);
 	}
 
 	@Override
@@ -948,12 +1152,12 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 	@Override
 	public Type visitTy(TyContext ctx) {
-		return new RustTypeVisitor(filePath, unit).visitTy(ctx);
+		return new RustTypeVisitor(locations, unit, symbols).visitTy(ctx);
 	}
 
 	@Override
 	public String visitMut_or_const(Mut_or_constContext ctx) {
-		return ctx.getText().equals("mut") ? "mut" : "const";
+		return is(ctx.getChild(0), RustTokens.MUT) ? "mut" : "const";
 	}
 
 	@Override
@@ -1021,13 +1225,13 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		if (ctx.pat_no_mut() != null)
 			return visitPat_no_mut(ctx.pat_no_mut());
 
-		String name = ctx.ident().getText();
+		String name = nameOf(ctx.ident(), symbols);
 
 		if (ctx.pat() != null)
 			// TODO Ignoring the meaning of ('@' pat)? part for now
 			return visitPat(ctx.pat());
 
-		return new RustVariableRef(currentCfg, locationOf(ctx, filePath), name, true);
+		return new RustVariableRef(currentCfg, locations.of(ctx), name, true);
 	}
 
 	@Override
@@ -1036,8 +1240,8 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			return visitPat_lit(ctx.pat_lit());
 
 		if (ctx.ident() != null) {
-			String name = ctx.ident().getText();
-			Expression var = new RustVariableRef(currentCfg, locationOf(ctx, filePath), name, false);
+			String name = nameOf(ctx.ident(), symbols);
+			Expression var = new RustVariableRef(currentCfg, locations.of(ctx), name, false);
 
 			if (ctx.pat() != null) {
 				// TODO skipping the meaning of ('@' pat)?
@@ -1048,14 +1252,14 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 				if (ctx.getChild(1) != null && ctx.getChild(1).getText().equals("mut"))
 					return new RustRefExpression(
 							currentCfg,
-							locationOf(ctx, filePath),
-							new RustVariableRef(currentCfg, locationOf(ctx, filePath), name, true),
+							locations.of(ctx),
+							new RustVariableRef(currentCfg, locations.of(ctx), name, true),
 							false);
 				else
 					return new RustRefExpression(
 							currentCfg,
-							locationOf(ctx, filePath),
-							new RustVariableRef(currentCfg, locationOf(ctx, filePath), name, false),
+							locations.of(ctx),
+							new RustVariableRef(currentCfg, locations.of(ctx), name, false),
 							false);
 			else
 				return var;
@@ -1076,7 +1280,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 				return new RustStructLiteral(
 						currentCfg,
-						locationOf(ctx, filePath),
+						locations.of(ctx),
 						struct,
 						values.toArray(new Expression[0]));
 			}
@@ -1100,10 +1304,10 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 					if (RustEnumType.has(typeName))
 						return new RustEnumTupleLiteral(
 								currentCfg,
-								locationOf(ctx, filePath),
+								locations.of(ctx),
 								new RustMultipleExpression(
 										currentCfg,
-										locationOf(ctx, filePath),
+										locations.of(ctx),
 										lhs.toArray(new Expression[0])),
 								variantName,
 								enumType);
@@ -1119,10 +1323,10 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 					if (RustEnumType.has(typeName))
 						return new RustEnumTupleLiteral(
 								currentCfg,
-								locationOf(ctx, filePath),
+								locations.of(ctx),
 								new RustMultipleExpression(
 										currentCfg,
-										locationOf(ctx, filePath),
+										locations.of(ctx),
 										lhs.toArray(new Expression[0])),
 								variantName,
 								enumType);
@@ -1132,9 +1336,10 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			if (ctx.macro_tail() != null) {
 				List<Expression> macroTail = visitMacro_tail(ctx.macro_tail());
 
-				return new UnresolvedCall(currentCfg, locationOf(ctx, filePath),
+				return new UnresolvedCall(currentCfg, locations.of(ctx),
 						RustFrontend.PARAMETER_ASSIGN_STRATEGY, RustFrontend.METHOD_MATCHING_STRATEGY,
-						RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.STATIC, "", path.toString() + "!",
+						RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.STATIC, "",
+						symbols.name(path.toString() + "!"),
 						RustFrontend.EVALUATION_ORDER, Untyped.INSTANCE, macroTail.toArray(new Expression[0]));
 
 			}
@@ -1144,25 +1349,25 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		switch (ctx.getChild(0).getText()) {
 		case "_":
-			return new VariableRef(currentCfg, locationOf(ctx, filePath), "_");
+			return new VariableRef(currentCfg, locations.of(ctx), symbols.name("_"));
 		case "(":
 			return visitPat_list_with_dots(ctx.pat_list_with_dots()).get(0);
 		case "[":
 			return visitPat_elt_list(ctx.pat_elt_list());
 		case "&":
 			if (ctx.getChild(1).getText().equals("mut"))
-				return new RustRefExpression(currentCfg, locationOf(ctx, filePath), visitPat(ctx.pat()), true);
+				return new RustRefExpression(currentCfg, locations.of(ctx), visitPat(ctx.pat()), true);
 
 			return visitPat_no_mut(ctx.pat_no_mut());
 		case "&&":
 			if (ctx.getChild(1).getText().equals("mut"))
-				return new RustDoubleRefExpression(currentCfg, locationOf(ctx, filePath),
+				return new RustDoubleRefExpression(currentCfg, locations.of(ctx),
 						visitPat(ctx.pat()), true);
 
-			return new RustDoubleRefExpression(currentCfg, locationOf(ctx, filePath),
+			return new RustDoubleRefExpression(currentCfg, locations.of(ctx),
 					visitPat_no_mut(ctx.pat_no_mut()), false);
 		case "box":
-			return new RustBoxExpression(currentCfg, locationOf(ctx, filePath), visitPat(ctx.pat()));
+			return new RustBoxExpression(currentCfg, locations.of(ctx), visitPat(ctx.pat()));
 		default:
 			// TODO need to implement the other cases:
 			// pat_no_mut
@@ -1181,8 +1386,8 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	@Override
 	public Expression visitPat_lit(Pat_litContext ctx) {
 		Expression lit = visitLit(ctx.lit());
-		if (ctx.getChild(0).getText().equals("-"))
-			return new RustMinusExpression(currentCfg, locationOf(ctx, filePath), lit);
+		if (is(ctx.getChild(0), RustTokens.MINUS))
+			return new RustMinusExpression(currentCfg, locations.of(ctx), lit);
 
 		return lit;
 	}
@@ -1264,25 +1469,25 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 	@Override
 	public Expression visitPat_field(Pat_fieldContext ctx) {
-		String name = ctx.ident().getText();
+		String name = nameOf(ctx.ident(), symbols);
 		Expression value = null;
 
 		if (ctx.pat() != null)
 			value = visitPat(ctx.pat());
 
 		if (ctx.getChild(3) != null && ctx.getChild(3).getText().equals("mut"))
-			value = new RustVariableRef(currentCfg, locationOf(ctx, filePath), name, true);
+			value = new RustVariableRef(currentCfg, locations.of(ctx), name, true);
 		else
-			value = new RustVariableRef(currentCfg, locationOf(ctx, filePath), name, false);
+			value = new RustVariableRef(currentCfg, locations.of(ctx), name, false);
 
 		// The "ref" on the lhs of an expression is equivalent to a "&" on the
 		// rhs
 		// https://doc.rust-lang.org/rust-by-example/scope/borrow/ref.html
 		if (ctx.getChild(2) != null && ctx.getChild(2).getText().equals("ref"))
-			value = new RustRefExpression(currentCfg, locationOf(ctx, filePath), value, false);
+			value = new RustRefExpression(currentCfg, locations.of(ctx), value, false);
 
 		if (ctx.getChild(1) != null && ctx.getChild(1).getText().equals("box"))
-			value = new RustBoxExpression(currentCfg, locationOf(ctx, filePath), value);
+			value = new RustBoxExpression(currentCfg, locations.of(ctx), value);
 
 		return value;
 	}
@@ -1315,7 +1520,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Pair<Statement, Statement> currentStmt = visitStmt(stmt);
 
 			if (lastStmt != null)
-				currentCfg.addEdge(new SequentialEdge(lastStmt, currentStmt.getLeft()));
+				addEdge(new SequentialEdge(lastStmt, currentStmt.getLeft()));
 			else
 				entryStmt = currentStmt.getLeft();
 
@@ -1324,18 +1529,17 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		if (ctx.expr() != null) {
 			Expression expr = visitExpr(ctx.expr());
-			RustReturnExpression ret = new RustReturnExpression(currentCfg, locationOf(ctx, filePath), expr);
-			currentCfg.addNode(ret);
+			RustReturnExpression ret = new RustReturnExpression(currentCfg, locations.of(ctx), expr);
+			addNode(ret);
 
 			if (entryStmt == null)
 				return Pair.of(ret, ret);
 
-			currentCfg.addEdge(new SequentialEdge(lastStmt, ret));
+			addEdge(new SequentialEdge(lastStmt, ret));
 		}
 
 		if (ctx.expr() == null && ctx.stmt().size() == 0) {
-			NoOp noOp = new NoOp(currentCfg, locationOf(ctx, filePath));
-			currentCfg.addNode(noOp);
+			NoOp noOp = join(locations.of(ctx));
 
 			entryStmt = noOp;
 			lastStmt = noOp;
@@ -1354,7 +1558,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Pair<Statement, Statement> currentStmt = visitStmt(stmt);
 
 			if (lastStmt != null)
-				currentCfg.addEdge(new SequentialEdge(lastStmt, currentStmt.getLeft()));
+				addEdge(new SequentialEdge(lastStmt, currentStmt.getLeft()));
 			else
 				entryStmt = currentStmt.getLeft();
 
@@ -1364,19 +1568,18 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		// This expr is the one of return from a function
 		if (ctx.expr() != null) {
 			Expression expr = visitExpr(ctx.expr());
-			RustReturnExpression ret = new RustReturnExpression(currentCfg, locationOf(ctx, filePath), expr);
-			currentCfg.addNode(ret);
+			RustReturnExpression ret = new RustReturnExpression(currentCfg, locations.of(ctx), expr);
+			addNode(ret);
 
 			if (entryStmt == null) {
 				return Pair.of(ret, ret);
 			}
 
-			currentCfg.addEdge(new SequentialEdge(lastStmt, ret));
+			addEdge(new SequentialEdge(lastStmt, ret));
 		}
 
 		if (ctx.expr() == null && ctx.stmt().size() == 0) {
-			NoOp noOp = new NoOp(currentCfg, locationOf(ctx, filePath));
-			currentCfg.addNode(noOp);
+			NoOp noOp = join(locations.of(ctx));
 
 			entryStmt = noOp;
 			lastStmt = noOp;
@@ -1403,17 +1606,15 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 	@Override
 	public Pair<Statement, Statement> visitStmt(StmtContext ctx) {
-		if (ctx.getText().equals(";")) {
-			NoOp noOp = new NoOp(currentCfg, locationOf(ctx, filePath));
-
-			currentCfg.addNode(noOp);
+		if (is(ctx.getChild(0), RustTokens.SEMI)) {
+			NoOp noOp = join(locations.of(ctx));
 
 			return Pair.of(noOp, noOp);
 		}
 
 		if (ctx.item() != null) {
 			Expression expr = visitItem(ctx.item());
-			currentCfg.addNode(expr);
+			addNode(expr);
 			return Pair.of(expr, expr);
 		} else
 			return visitStmt_tail(ctx.stmt_tail());
@@ -1423,7 +1624,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	public Pair<Statement, Statement> visitStmt_tail(Stmt_tailContext ctx) {
 		if (ctx.getChild(0) instanceof ExprContext) {
 			Statement expr = visitExpr(ctx.expr());
-			currentCfg.addNode(expr);
+			addNode(expr);
 			return Pair.of(expr, expr);
 		}
 
@@ -1441,17 +1642,18 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			if (ctx.expr() != null) {
 				Expression rhs = visitExpr(ctx.expr());
 
-				VariableRef var = new VariableRef(currentCfg, locationOf(ctx, filePath), lhs.toString(), type);
+				VariableRef var = new VariableRef(currentCfg, locations.of(ctx), symbols.name(lhs.toString()),
+						type);
 
-				RustLetAssignment assigment = new RustLetAssignment(currentCfg, locationOf(ctx, filePath), type, var,
+				RustLetAssignment assigment = new RustLetAssignment(currentCfg, locations.of(ctx), type, var,
 						rhs);
-				currentCfg.addNode(assigment);
+				addNode(assigment);
 
 				return Pair.of(assigment, assigment);
 			}
 
-			VariableRef var = new VariableRef(currentCfg, locationOf(ctx, filePath), lhs.toString(), type);
-			currentCfg.addNode(var);
+			VariableRef var = new VariableRef(currentCfg, locations.of(ctx), symbols.name(lhs.toString()), type);
+			addNode(var);
 			return Pair.of(var, var);
 		}
 
@@ -1473,9 +1675,11 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			loop_label = visitLoop_label(ctx.loop_label());
 		}
 
-		if (ctx.children.get(0).getText().equals("if")) {
-			NoOp noOp = new NoOp(currentCfg, locationOf(ctx, filePath));
-			currentCfg.addNode(noOp);
+		// the keyword follows the optional loop label
+		int keyword = typeOf(ctx.getChild(loop_label == null ? 0 : 1));
+
+		if (keyword == RustTokens.IF) {
+			NoOp noOp = join(locations.of(ctx));
 
 			List<Expression> elseIfGuardList = new ArrayList<>();
 			for (int i = 0; i < ctx.cond_or_pat().size(); ++i) {
@@ -1483,155 +1687,162 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 				BlockContext thenBlock = ctx.block(i);
 
 				Expression guard = visitCond_or_pat(copc);
-				currentCfg.addNode(guard);
+				addNode(guard);
 
 				Pair<Statement, Statement> trueBlock = visitBlock(thenBlock);
 
-				currentCfg.addEdge(new TrueEdge(guard, trueBlock.getLeft()));
-				currentCfg.addEdge(new SequentialEdge(trueBlock.getRight(), noOp));
+				addEdge(new TrueEdge(guard, trueBlock.getLeft()));
+				addEdge(new SequentialEdge(trueBlock.getRight(), noOp));
 
 				elseIfGuardList.add(guard);
 			}
 
 			for (int i = 0; i < elseIfGuardList.size() - 1; ++i) {
-				currentCfg.addEdge(
+				addEdge(
 						new FalseEdge(elseIfGuardList.get(i), elseIfGuardList.get(i + 1)));
 			}
 
-			if (ctx.children.get(ctx.children.size() - 2).getText().equals("else")) {
+			if (is(ctx.getChild(ctx.getChildCount() - 2), RustTokens.ELSE)) {
 				BlockContext elseBlock = ctx.block().get(ctx.block().size() - 1);
 				Pair<Statement, Statement> parsedElseBlock = visitBlock(elseBlock);
 
-				currentCfg.addEdge(new FalseEdge(
+				addEdge(new FalseEdge(
 						elseIfGuardList.get(elseIfGuardList.size() - 1),
 						parsedElseBlock.getLeft()));
 
-				currentCfg.addEdge(new SequentialEdge(
+				addEdge(new SequentialEdge(
 						parsedElseBlock.getRight(),
 						noOp));
 
 			} else {
-				currentCfg.addEdge(new FalseEdge(
+				addEdge(new FalseEdge(
 						elseIfGuardList.get(elseIfGuardList.size() - 1),
 						noOp));
 			}
 
 			firstStmt = elseIfGuardList.get(0);
 			lastStmt = noOp;
-		} else if (ctx.children.get(0).getText().equals("match")) {
+		} else if (keyword == RustTokens.MATCH) {
 			Expression expression = visitExpr_no_struct(ctx.expr_no_struct());
 
-			NoOp ending = new NoOp(currentCfg, locationOf(ctx, filePath));
-			currentCfg.addNode(ending);
+			NoOp ending = join(locations.of(ctx));
 
 			// TODO skipping expr_inner_attrs?
 			if (ctx.match_arms() != null) {
 				List<Triple<List<RustMatchKeeper>, Statement, Statement>> matchArms = visitMatch_arms(ctx.match_arms());
-
-				List<Expression> resolvedConditions = new ArrayList<>();
-				for (Triple<List<RustMatchKeeper>, Statement, Statement> arm : matchArms) {
-
-					// Resolve RustMatchKeeper
-					List<RustMatchKeeper> guards = arm.getLeft().subList(1, arm.getLeft().size());
-					Expression expressionAccumulator = new RustEqualExpression(currentCfg, locationOf(ctx, filePath),
-							expression, arm.getLeft().get(0).get());
-					for (RustMatchKeeper guard : guards) {
-						if (guard instanceof RustMatchOrKeeper) {
-							Expression equality = new RustEqualExpression(currentCfg, locationOf(ctx, filePath),
-									expression, guard.get());
-							expressionAccumulator = new RustOrExpression(currentCfg, locationOf(ctx, filePath),
-									expressionAccumulator, equality);
-						} else { // RustMatchAndKeeper
-							expressionAccumulator = new RustAndExpression(currentCfg, locationOf(ctx, filePath),
-									expressionAccumulator, guard.get());
+				Statement tree = options.isMatchDecisionTree()
+						? decisionTree(expression, matchArms, ending, locations.of(ctx))
+						: null;
+
+				if (tree != null)
+					firstStmt = tree;
+				else {
+					List<Expression> resolvedConditions = new ArrayList<>();
+					for (Triple<List<RustMatchKeeper>, Statement, Statement> arm : matchArms) {
+
+						// Resolve RustMatchKeeper
+						List<RustMatchKeeper> guards = arm.getLeft().subList(1, arm.getLeft().size());
+						Expression expressionAccumulator = new RustEqualExpression(currentCfg, locations.of(ctx),
+								expression, arm.getLeft().get(0).get());
+						for (RustMatchKeeper guard : guards) {
+							if (guard instanceof RustMatchOrKeeper) {
+								Expression equality = new RustEqualExpression(currentCfg, locations.of(ctx),
+										expression, guard.get());
+								expressionAccumulator = new RustOrExpression(currentCfg, locations.of(ctx),
+										expressionAccumulator, equality);
+							} else { // RustMatchAndKeeper
+								expressionAccumulator = new RustAndExpression(currentCfg, locations.of(ctx),
+										expressionAccumulator, guard.get());
+							}
 						}
+
+						addNode(expressionAccumulator);
+						resolvedConditions.add(expressionAccumulator);
 					}
 
-					currentCfg.addNode(expressionAccumulator);
-					resolvedConditions.add(expressionAccumulator);
-				}
+					// Connect all the nodes
+					for (int i = 0; i < matchArms.size() - 1; ++i) {
+						Triple<List<RustMatchKeeper>, Statement, Statement> currentArm = matchArms.get(i);
+						addEdge(new TrueEdge(resolvedConditions.get(i), currentArm.getMiddle()));
+						addEdge(new FalseEdge(resolvedConditions.get(i), resolvedConditions.get(i + 1)));
+					}
 
-				// Connect all the nodes
-				for (int i = 0; i < matchArms.size() - 1; ++i) {
-					Triple<List<RustMatchKeeper>, Statement, Statement> currentArm = matchArms.get(i);
-					currentCfg.addEdge(new TrueEdge(resolvedConditions.get(i), currentArm.getMiddle()));
-					currentCfg.addEdge(new FalseEdge(resolvedConditions.get(i), resolvedConditions.get(i + 1)));
-				}
+					// Connect last node
+					Expression lastGuard = resolvedConditions.get(resolvedConditions.size() - 1);
+					addEdge(new TrueEdge(lastGuard, matchArms.get(matchArms.size() - 1).getMiddle()));
+					addEdge(new FalseEdge(lastGuard, ending));
 
-				// Connect last node
-				Expression lastGuard = resolvedConditions.get(resolvedConditions.size() - 1);
-				currentCfg.addEdge(new TrueEdge(lastGuard, matchArms.get(matchArms.size() - 1).getMiddle()));
-				currentCfg.addEdge(new FalseEdge(lastGuard, ending));
+					firstStmt = resolvedConditions.get(0);
+				}
 
 				// Connect all the end of the block to the noOp
 				for (Triple<List<RustMatchKeeper>, Statement, Statement> arm : matchArms)
-					currentCfg.addEdge(new SequentialEdge(arm.getRight(), ending));
+					addEdge(new SequentialEdge(arm.getRight(), ending));
 
-				firstStmt = resolvedConditions.get(0);
 				lastStmt = ending;
 
 			} else {
-				currentCfg.addNode(expression);
+				addNode(expression);
 				firstStmt = expression;
 				lastStmt = expression;
 			}
-		} else if ((loop_label == null && ctx.children.get(0).getText().equals("loop"))
-				|| ctx.children.get(1).getText().equals("loop")) {
+		} else if (keyword == RustTokens.LOOP) {
 			Pair<Statement, Statement> stmt = visitBlock_with_inner_attrs(ctx.block_with_inner_attrs());
 
-			RustBoolean guard = new RustBoolean(currentCfg, locationOf(ctx, filePath), true);
-			currentCfg.addNode(guard);
+			RustBoolean guard = new RustBoolean(currentCfg, locations.of(ctx), true);
+			addNode(guard);
 
-			NoOp noOp = new NoOp(currentCfg, locationOf(ctx, filePath));
-			currentCfg.addNode(noOp);
+			NoOp noOp = join(locations.of(ctx));
 
-			currentCfg.addEdge(new TrueEdge(guard, stmt.getLeft()));
-			currentCfg.addEdge(new FalseEdge(guard, noOp));
-			currentCfg.addEdge(new SequentialEdge(stmt.getRight(), guard));
+			addEdge(new TrueEdge(guard, stmt.getLeft()));
+			addEdge(new FalseEdge(guard, noOp));
+			addEdge(new SequentialEdge(stmt.getRight(), guard));
 
 			firstStmt = guard;
 			lastStmt = noOp;
 
-		} else if ((loop_label == null && ctx.children.get(0).getText().equals("while"))
-				|| ctx.children.get(1).getText().equals("while")) {
+		} else if (keyword == RustTokens.WHILE) {
 			Expression guard = visitCond_or_pat(ctx.cond_or_pat(0));
-			currentCfg.addNode(guard);
+			addNode(guard);
 
 			Pair<Statement, Statement> body = visitBlock_with_inner_attrs(ctx.block_with_inner_attrs());
 
-			NoOp noOp = new NoOp(currentCfg, locationOf(ctx, filePath));
-			currentCfg.addNode(noOp);
+			NoOp noOp = join(locations.of(ctx));
 
 			firstStmt = guard;
-			currentCfg.addEdge(new TrueEdge(guard, body.getLeft()));
-			currentCfg.addEdge(new FalseEdge(guard, noOp));
-			currentCfg.addEdge(new SequentialEdge(body.getRight(), guard));
+			addEdge(new TrueEdge(guard, body.getLeft()));
+			addEdge(new FalseEdge(guard, noOp));
+			addEdge(new SequentialEdge(body.getRight(), guard));
 			lastStmt = noOp;
 
-		} else if ((loop_label == null && ctx.children.get(0).getText().equals("for"))
-				|| ctx.children.get(1).getText().equals("for")) {
+		} else if (keyword == RustTokens.FOR) {
 
 			// Note that this is enforced by the semantics to be a (list of)
 			// identifiers.
 			// TODO For now we can assume this is just a single identifier.
-			String name = visitPat(ctx.pat()).toString();
-			VariableRef forVariable = new RustVariableRef(currentCfg, locationOf(ctx, filePath), name, true);
+			String name = symbols.name(visitPat(ctx.pat()).toString());
+			VariableRef forVariable = new RustVariableRef(currentCfg, locations.of(ctx), name, true);
 
 			Expression range = visitExpr_no_struct(ctx.expr_no_struct());
+			if (options.isCountedRangeLoops()
+					&& (range instanceof RustRangeExpression || range instanceof RustRangeFromExpression))
+				return countedLoop(forVariable, range, ctx.block_with_inner_attrs(), locations.of(ctx));
+
 			Pair<Statement, Statement> body = visitBlock_with_inner_attrs(ctx.block_with_inner_attrs());
 
-			VariableRef fresh = new RustVariableRef(currentCfg, locationOf(ctx, filePath), "RUSTLISA_FRESH", false);
-			Expression freshAssignment = new RustLetAssignment(currentCfg, locationOf(ctx, filePath), Untyped.INSTANCE,
+			VariableRef fresh = new RustVariableRef(currentCfg, locations.of(ctx),
+					symbols.name("RUSTLISA_FRESH"), false);
+			Expression freshAssignment = new RustLetAssignment(currentCfg, locations.of(ctx), Untyped.INSTANCE,
 					fresh,
 					range);
-			currentCfg.addNode(freshAssignment);
+			addNode(freshAssignment);
 
-			UnresolvedCall nextCall = new UnresolvedCall(currentCfg, locationOf(ctx, filePath),
+			UnresolvedCall nextCall = new UnresolvedCall(currentCfg, locations.of(ctx),
 					RustFrontend.PARAMETER_ASSIGN_STRATEGY, RustFrontend.METHOD_MATCHING_STRATEGY,
-					RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.INSTANCE, fresh.getName(), "next",
+					RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.INSTANCE, fresh.getName(), symbols.name("next"),
 					RustFrontend.EVALUATION_ORDER, Untyped.INSTANCE, new Expression[0]);
 
-			Expression forVarAssignment = new RustLetAssignment(currentCfg, locationOf(ctx, filePath), Untyped.INSTANCE,
+			Expression forVarAssignment = new RustLetAssignment(currentCfg, locations.of(ctx), Untyped.INSTANCE,
 					forVariable,
 					nextCall);
 			// TODO Keep in mind that this is also a function
@@ -1640,33 +1851,32 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			// is the next iterator in the
 			// sequence and None otherwise.
 
-			currentCfg.addNode(forVarAssignment);
-			currentCfg.addEdge(new SequentialEdge(freshAssignment, forVarAssignment));
+			addNode(forVarAssignment);
+			addEdge(new SequentialEdge(freshAssignment, forVarAssignment));
 
 			// TODO NullLiteral here is to represent the None type, change this
 			// in the future
-			Expression guard = new RustNotEqualExpression(currentCfg, locationOf(ctx, filePath), forVariable,
-					new NullLiteral(currentCfg, locationOf(ctx, filePath)));
-			currentCfg.addNode(guard);
+			Expression guard = new RustNotEqualExpression(currentCfg, locations.of(ctx), forVariable,
+					new NullLiteral(currentCfg, locations.of(ctx)));
+			addNode(guard);
 
-			currentCfg.addEdge(new SequentialEdge(forVarAssignment, guard));
+			addEdge(new SequentialEdge(forVarAssignment, guard));
 
-			NoOp noOp = new NoOp(currentCfg, locationOf(ctx, filePath));
-			currentCfg.addNode(noOp);
+			NoOp noOp = join(locations.of(ctx));
 
-			currentCfg.addEdge(new TrueEdge(guard, body.getLeft()));
-			currentCfg.addEdge(new FalseEdge(guard, noOp));
+			addEdge(new TrueEdge(guard, body.getLeft()));
+			addEdge(new FalseEdge(guard, noOp));
 
-			Expression increment = new RustAssignment(currentCfg, locationOf(ctx, filePath), forVariable, nextCall);
+			Expression increment = new RustAssignment(currentCfg, locations.of(ctx), forVariable, nextCall);
 			// TODO Keep in mind that this is also a function
 			// call to pat.next() which
 			// returns a std::ops::Option which is Some(n) if n
 			// is the next iterator in the
 			// sequence and None otherwise.
-			currentCfg.addNode(increment);
+			addNode(increment);
 
-			currentCfg.addEdge(new SequentialEdge(body.getRight(), increment));
-			currentCfg.addEdge(new SequentialEdge(increment, guard));
+			addEdge(new SequentialEdge(body.getRight(), increment));
+			addEdge(new SequentialEdge(increment, guard));
 
 			firstStmt = freshAssignment;
 			lastStmt = noOp;
@@ -1675,13 +1885,170 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		return Pair.of(firstStmt, lastStmt);
 	}
 
+	/**
+	 * Lowers the arms of a match to a balanced decision tree over their
+	 * patterns, if these are all integer or character literals, but for a last
+	 * wildcard or binding arm, and no arm has an if clause. Inner nodes compare
+	 * the matched expression with the median of their keys, and leaves check
+	 * it against a single key, so that an arm is reached in a logarithmic,
+	 * rather than linear, number of guards. When keys repeat, the first arm
+	 * wins.
+	 * 
+	 * @param expression the matched expression
+	 * @param arms       the arms of the match
+	 * @param ending     the node following the match
+	 * @param location   the location of the match
+	 * 
+	 * @return the root of the tree, or {@code null} if the arms cannot be
+	 *             lowered to a tree
+	 */
+	private Statement decisionTree(Expression expression,
+			List<Triple<List<RustMatchKeeper>, Statement, Statement>> arms, Statement ending,
+			SourceCodeLocation location) {
+		TreeMap<Long, Pair<Expression, Statement>> keys = new TreeMap<>();
+		Statement otherwise = ending;
+
+		for (int i = 0; i < arms.size(); ++i) {
+			List<RustMatchKeeper> patterns = arms.get(i).getLeft();
+			for (RustMatchKeeper pattern : patterns) {
+				if (!(pattern instanceof RustMatchOrKeeper))
+					return null;
+
+				Long key = keyOf(pattern.get());
+				if (key != null)
+					keys.putIfAbsent(key, Pair.of(pattern.get(), arms.get(i).getMiddle()));
+				else if (i == arms.size() - 1 && patterns.size() == 1 && pattern.get() instanceof VariableRef)
+					otherwise = arms.get(i).getMiddle();
+				else
+					return null;
+			}
+		}
+
+		if (keys.isEmpty())
+			return null;
+
+		return decisionTree(expression, new ArrayList<>(keys.entrySet()), otherwise, location);
+	}
+
+	private Expression decisionTree(Expression expression, List<Map.Entry<Long, Pair<Expression, Statement>>> keys,
+			Statement otherwise, SourceCodeLocation location) {
+		if (keys.size() == 1) {
+			Pair<Expression, Statement> key = keys.get(0).getValue();
+			Expression leaf = new RustEqualExpression(currentCfg, location, expression, key.getLeft());
+			addNode(leaf);
+			addEdge(new TrueEdge(leaf, key.getRight()));
+			addEdge(new FalseEdge(leaf, otherwise));
+			return leaf;
+		}
+
+		int median = keys.size() / 2;
+		Expression pivot = new RustLessExpression(currentCfg, location, expression,
+				literalOf(keys.get(median).getValue().getLeft(), keys.get(median).getKey(), location));
+		addNode(pivot);
+		addEdge(new TrueEdge(pivot, decisionTree(expression, keys.subList(0, median), otherwise, location)));
+		addEdge(new FalseEdge(pivot,
+				decisionTree(expression, keys.subList(median, keys.size()), otherwise, location)));
+		return pivot;
+	}
+
+	private static Long keyOf(Expression pattern) {
+		if (pattern instanceof RustInteger)
+			return ((RustInteger) pattern).getValue().longValue();
+		if (pattern instanceof RustChar)
+			return (long) ((RustChar) pattern).getValue().charValue();
+		if (pattern instanceof RustMinusExpression
+				&& ((RustMinusExpression) pattern).getSubExpression() instanceof RustInteger)
+			return -((RustInteger) ((RustMinusExpression) pattern).getSubExpression()).getValue().longValue();
+		return null;
+	}
+
+	private Expression literalOf(Expression pattern, long key, SourceCodeLocation location) {
+		if (pattern instanceof RustChar)
+			return new RustChar(currentCfg, location, (char) key);
+		if (key < 0)
+			return new RustMinusExpression(currentCfg, location, new RustInteger(currentCfg, location, (int) -key));
+		return new RustInteger(currentCfg, location, (int) key);
+	}
+
+	/**
+	 * Lowers a for loop over a range to a counted loop. The bounds of the
+	 * range are evaluated once, before the loop, into a counter and, if the
+	 * range has an end, a bound; the loop is guarded by {@code counter < bound}
+	 * (or by {@code true}, for ranges with no end), binds the variable of the
+	 * loop to the counter at the start of each iteration, and increments the
+	 * counter at its end. No call to {@code next} is left to resolve.
+	 * 
+	 * @param variable the variable of the loop
+	 * @param range    the range the loop iterates over
+	 * @param block    the body of the loop
+	 * @param location the location of the loop
+	 * 
+	 * @return the first and the last statement of the loop
+	 */
+	private Pair<Statement, Statement> countedLoop(VariableRef variable, Expression range,
+			Block_with_inner_attrsContext block, SourceCodeLocation location) {
+		// loops over ranges nested into each other need different counters
+		int depth = rangeLoops++;
+		String counter = symbols.name("RUSTLISA_COUNTER" + depth);
+
+		Expression start = range instanceof RustRangeExpression ? ((RustRangeExpression) range).getSubExpressions()[0]
+				: ((RustRangeFromExpression) range).getSubExpression();
+		Expression init = new RustLetAssignment(currentCfg, location, Untyped.INSTANCE,
+				new RustVariableRef(currentCfg, location, counter, true), start);
+		addNode(init);
+
+		Statement last = init;
+		Expression guard;
+		if (range instanceof RustRangeExpression) {
+			String bound = symbols.name("RUSTLISA_BOUND" + depth);
+			Expression boundInit = new RustLetAssignment(currentCfg, location, Untyped.INSTANCE,
+					new RustVariableRef(currentCfg, location, bound, false),
+					((RustRangeExpression) range).getSubExpressions()[1]);
+			addNode(boundInit);
+			addEdge(new SequentialEdge(init, boundInit));
+			last = boundInit;
+
+			guard = new RustLessExpression(currentCfg, location,
+					new RustVariableRef(currentCfg, location, counter, false),
+					new RustVariableRef(currentCfg, location, bound, false));
+		} else
+			guard = new RustBoolean(currentCfg, location, true);
+
+		addNode(guard);
+		addEdge(new SequentialEdge(last, guard));
+
+		Expression binding = new RustLetAssignment(currentCfg, location, Untyped.INSTANCE, variable,
+				new RustVariableRef(currentCfg, location, counter, false));
+		addNode(binding);
+
+		Pair<Statement, Statement> body = visitBlock_with_inner_attrs(block);
+		rangeLoops--;
+
+		Expression increment = new RustAssignment(currentCfg, location,
+				new RustVariableRef(currentCfg, location, counter, true),
+				new RustAddExpression(currentCfg, location,
+						new RustVariableRef(currentCfg, location, counter, false),
+						new RustInteger(currentCfg, location, 1)));
+		addNode(increment);
+
+		NoOp noOp = join(location);
+
+		addEdge(new TrueEdge(guard, binding));
+		addEdge(new FalseEdge(guard, noOp));
+		addEdge(new SequentialEdge(binding, body.getLeft()));
+		addEdge(new SequentialEdge(body.getRight(), increment));
+		addEdge(new SequentialEdge(increment, guard));
+
+		return Pair.of(init, noOp);
+	}
+
 	@Override
 	public Expression visitCond_or_pat(Cond_or_patContext ctx) {
-		if (ctx.getChild(0).getText().equals("let")) {
+		if (is(ctx.getChild(0), RustTokens.LET)) {
 			Expression pat = visitPat(ctx.pat());
 			Expression expr = visitExpr(ctx.expr());
 
-			return new RustDestructuringExpression(currentCfg, locationOf(ctx, filePath), pat, expr);
+			return new RustDestructuringExpression(currentCfg, locations.of(ctx), pat, expr);
 		}
 
 		return visitExpr_no_struct(ctx.expr_no_struct());
@@ -1706,7 +2073,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			match.add(Triple.of(guards, body.getLeft(), body.getRight()));
 		} else {
 			Expression expr = visitExpr(ctx.expr());
-			currentCfg.addNode(expr);
+			addNode(expr);
 			Triple<List<RustMatchKeeper>, Statement, Statement> exprTriple = Triple.of(guards, expr, expr);
 			match.add(exprTriple);
 		}
@@ -1751,13 +2118,13 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		for (AttrContext attr : ctx.attr()) {
 			Statement stmtAttr = visitAttr(attr);
-			currentCfg.addNode(stmtAttr);
+			addNode(stmtAttr);
 
 			if (first == null) {
 				first = stmtAttr;
 				previous = stmtAttr;
 			} else {
-				currentCfg.addEdge(new SequentialEdge(previous, stmtAttr));
+				addEdge(new SequentialEdge(previous, stmtAttr));
 				previous = stmtAttr;
 			}
 		}
@@ -1783,7 +2150,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 				return new RustStructLiteral(
 						currentCfg,
-						locationOf(ctx, filePath),
+						locations.of(ctx),
 						structType,
 						fields.stream()
 								.map(e -> e.getRight())
@@ -1793,7 +2160,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			} else // Still a struct parsing but with no fields inside
 				return new RustStructLiteral(
 						currentCfg,
-						locationOf(ctx, filePath),
+						locations.of(ctx),
 						structType,
 						new Expression[0]);
 		}
@@ -1809,7 +2176,8 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		// | 'break' lifetime_or_expr?
 		// | 'continue' Lifetime?
 
-		if (ctx.getChild(0).getText().equals("(")) {
+		ParseTree first = ctx.getChild(0);
+		if (is(first, RustTokens.LPAREN)) {
 			// TODO Ignoring expr_inner_attrs? part
 
 			if (ctx.expr().get(0) != null) {
@@ -1821,7 +2189,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 					return new RustTupleLiteral(
 							currentCfg,
-							locationOf(ctx, filePath),
+							locations.of(ctx),
 							exprs.stream()
 									.map(e -> e.getStaticType())
 									.collect(Collectors.toList())
@@ -1832,13 +2200,13 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 				return expr;
 			}
 
-			return new RustUnitLiteral(currentCfg, locationOf(ctx, filePath));
-		} else if (ctx.getChild(0).getText().equals("[")) {
+			return new RustUnitLiteral(currentCfg, locations.of(ctx));
+		} else if (is(first, RustTokens.LBRACKET)) {
 			// TODO Ignoring expr_inner_attrs? part
 
 			if (ctx.expr_list() != null) {
 				List<Expression> exprs = visitExpr_list(ctx.expr_list());
-				return new RustArrayLiteral(currentCfg, locationOf(ctx, filePath), Untyped.INSTANCE,
+				return new RustArrayLiteral(currentCfg, locations.of(ctx), Untyped.INSTANCE,
 						exprs.toArray(new Expression[0]));
 
 			} else if (ctx.expr() != null) {
@@ -1854,19 +2222,19 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 				Expression[] exprs = new Expression[length];
 				Arrays.fill(exprs, element);
 
-				return new RustArrayLiteral(currentCfg, locationOf(ctx, filePath), Untyped.INSTANCE, exprs);
+				return new RustArrayLiteral(currentCfg, locations.of(ctx), Untyped.INSTANCE, exprs);
 			}
 
-			return new RustArrayLiteral(currentCfg, locationOf(ctx, filePath), Untyped.INSTANCE, new Expression[0]);
+			return new RustArrayLiteral(currentCfg, locations.of(ctx), Untyped.INSTANCE, new Expression[0]);
 
-		} else if (ctx.getChild(0).getText().equals("self")) {
-			return new RustVariableRef(currentCfg, locationOf(ctx, filePath), "self", false);
-		} else if (ctx.getChild(0).getText().equals("return")) {
-			Expression returnValue = new RustUnitLiteral(currentCfg, locationOf(ctx, filePath));
+		} else if (is(first, RustTokens.SELF)) {
+			return new RustVariableRef(currentCfg, locations.of(ctx), symbols.name("self"), false);
+		} else if (is(first, RustTokens.RETURN)) {
+			Expression returnValue = new RustUnitLiteral(currentCfg, locations.of(ctx));
 			if (ctx.expr(0) != null)
 				returnValue = visitExpr(ctx.expr(0));
 
-			return new RustReturnExpression(currentCfg, locationOf(ctx, filePath), returnValue);
+			return new RustReturnExpression(currentCfg, locations.of(ctx), returnValue);
 		} else if (ctx.blocky_expr() != null) {
 			// TODO watch out for expression and statements
 			// return visitBlocky_expr(ctx.blocky_expr());
@@ -1878,9 +2246,10 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			if (ctx.macro_tail() != null) {
 				List<Expression> macroTail = visitMacro_tail(ctx.macro_tail());
 
-				return new UnresolvedCall(currentCfg, locationOf(ctx, filePath),
+				return new UnresolvedCall(currentCfg, locations.of(ctx),
 						RustFrontend.PARAMETER_ASSIGN_STRATEGY, RustFrontend.METHOD_MATCHING_STRATEGY,
-						RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.STATIC, "", path.toString() + "!",
+						RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.STATIC, "",
+						symbols.name(path.toString() + "!"),
 						RustFrontend.EVALUATION_ORDER, Untyped.INSTANCE, macroTail.toArray(new Expression[0]));
 			}
 			return path;
@@ -1893,20 +2262,23 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 	@Override
 	public Expression visitLit(LitContext ctx) {
-		if (ctx.getText().equals("true"))
-			return new RustBoolean(currentCfg, locationOf(ctx, filePath), true);
-		else if (ctx.getText().equals("false"))
-			return new RustBoolean(currentCfg, locationOf(ctx, filePath), false);
-		else if (ctx.BareIntLit() != null)
-			return new RustInteger(currentCfg, locationOf(ctx, filePath), Integer.parseInt(ctx.getText()));
-		else if (ctx.FloatLit() != null)
-			return new RustFloat(currentCfg, locationOf(ctx, filePath), Float.parseFloat(ctx.getText()));
+		// a literal is always made of a single token
+		int type = typeOf(ctx.getChild(0));
+		if (type == RustTokens.TRUE)
+			return new RustBoolean(currentCfg, locations.of(ctx), true);
+		else if (type == RustTokens.FALSE)
+			return new RustBoolean(currentCfg, locations.of(ctx), false);
+		else if (type == RustParser.BareIntLit)
+			return new RustInteger(currentCfg, locations.of(ctx),
+					Integer.parseInt(ctx.BareIntLit().getText()));
+		else if (type == RustParser.FloatLit)
+			return new RustFloat(currentCfg, locations.of(ctx), Float.parseFloat(ctx.FloatLit().getText()));
 		else if (ctx.StringLit() != null) {
 			String strValue = ctx.StringLit().getText();
-			return new RustString(currentCfg, locationOf(ctx, filePath), strValue.substring(1, strValue.length() - 1));
+			return new RustString(currentCfg, locations.of(ctx), strValue.substring(1, strValue.length() - 1));
 		} else if (ctx.CharLit() != null) {
 			char charValue = ctx.CharLit().getText().charAt(1);
-			return new RustChar(currentCfg, locationOf(ctx, filePath), charValue);
+			return new RustChar(currentCfg, locations.of(ctx), charValue);
 		}
 
 		// TODO skipping FullIntLit, ByteLit, ByteStringLit
@@ -1974,7 +2346,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		if (ctx.ident() != null)
 			return visitIdent(ctx.ident());
 		else
-			return new RustInteger(currentCfg, locationOf(ctx, filePath), Integer.parseInt(ctx.getText()));
+			return new RustInteger(currentCfg, locations.of(ctx), Integer.parseInt(ctx.getText()));
 	}
 
 	/**
@@ -1991,12 +2363,12 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	private Expression postExprTailParser(ParserRuleContext ctx, Expression head, RustAccessResolver tail) {
 		if (tail instanceof RustArrayAccessKeeper) {
 			RustArrayAccessKeeper right = (RustArrayAccessKeeper) tail;
-			return new RustArrayAccess(currentCfg, locationOf(ctx, filePath), head, right.getExpr());
+			return new RustArrayAccess(currentCfg, locations.of(ctx), head, right.getExpr());
 
 		} else if (tail instanceof RustTupleAccessKeeper) {
 			RustTupleAccessKeeper right = (RustTupleAccessKeeper) tail;
 
-			return new RustTupleAccess(currentCfg, locationOf(ctx, filePath), head, right.getExpr());
+			return new RustTupleAccess(currentCfg, locations.of(ctx), head, right.getExpr());
 		} else if (tail instanceof RustMethodKeeper) {
 			RustMethodKeeper right = (RustMethodKeeper) tail;
 
@@ -2004,7 +2376,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			parameters.add(head);
 			parameters.addAll(right.getAccessParameter());
 
-			UnresolvedCall methodCall = new UnresolvedCall(currentCfg, locationOf(ctx, filePath),
+			UnresolvedCall methodCall = new UnresolvedCall(currentCfg, locations.of(ctx),
 					RustFrontend.PARAMETER_ASSIGN_STRATEGY, RustFrontend.METHOD_MATCHING_STRATEGY,
 					RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.INSTANCE, "", right.getMethodName(),
 					RustFrontend.EVALUATION_ORDER, Untyped.INSTANCE, parameters.toArray(new Expression[0]));
@@ -2012,16 +2384,16 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		} else if (tail instanceof RustAttributeAccessKeeper) {
 			RustAttributeAccessKeeper right = (RustAttributeAccessKeeper) tail;
-			return new RustAccessMemberExpression(currentCfg, locationOf(ctx, filePath), head, right.getExpr());
+			return new RustAccessMemberExpression(currentCfg, locations.of(ctx), head, right.getExpr());
 
 		} else {
 			RustFunctionCallKeeper right = (RustFunctionCallKeeper) tail;
 
 			String receiverName = (head instanceof AccessGlobal ? ((AccessGlobal) head).getContainer().getName() : "");
 			String targetName = (head instanceof AccessGlobal ? ((AccessGlobal) head).getTarget().getName()
-					: head.toString());
+					: symbols.name(head.toString()));
 
-			UnresolvedCall functionCall = new UnresolvedCall(currentCfg, locationOf(ctx, filePath),
+			UnresolvedCall functionCall = new UnresolvedCall(currentCfg, locations.of(ctx),
 					RustFrontend.PARAMETER_ASSIGN_STRATEGY, RustFrontend.METHOD_MATCHING_STRATEGY,
 					RustFrontend.HIERARCY_TRAVERSAL_STRATEGY, CallType.STATIC, receiverName, targetName,
 					RustFrontend.EVALUATION_ORDER, Untyped.INSTANCE, right.getParameters().toArray(new Expression[0]));
@@ -2045,16 +2417,16 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 	@Override
 	public RustAccessResolver visitPost_expr_tail(Post_expr_tailContext ctx) {
-		switch (ctx.getChild(0).getText()) {
-		case "?":
+		int first = typeOf(ctx.getChild(0));
+		if (first == RustTokens.QUESTION) {
 			// TODO should return the correct error handling operator on the
 			// correct type
 			return null;
-		case "[":
+		} else if (first == RustTokens.LBRACKET) {
 			return new RustArrayAccessKeeper(visitExpr(ctx.expr()));
-		case ".":
+		} else if (first == RustTokens.DOT) {
 			if (ctx.BareIntLit() != null) {
-				Expression position = new RustInteger(currentCfg, locationOf(ctx, filePath),
+				Expression position = new RustInteger(currentCfg, locations.of(ctx),
 						Integer.parseInt(ctx.BareIntLit().getText()));
 
 				return new RustTupleAccessKeeper(position);
@@ -2062,7 +2434,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 			// TODO skipping ty_args?
 
-			String ident = ctx.ident().getText();
+			String ident = nameOf(ctx.ident(), symbols);
 
 			// Method call with parameters
 			if (ctx.expr_list() != null) {
@@ -2070,16 +2442,16 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 				return new RustMethodKeeper(ident, parameters);
 
 				// Method call without parameters
-			} else if (ctx.getChild(2) != null && ctx.getChild(2).getText().equals("("))
+			} else if (is(ctx.getChild(2), RustTokens.LPAREN))
 				return new RustMethodKeeper(ident, new ArrayList<Expression>());
 
 			// Attribute access
 			else {
-				RustVariableRef attributeName = new RustVariableRef(currentCfg, locationOf(ctx, filePath), ident,
+				RustVariableRef attributeName = new RustVariableRef(currentCfg, locations.of(ctx), ident,
 						false);
 				return new RustAttributeAccessKeeper(attributeName);
 			}
-		case "(":
+		} else if (first == RustTokens.LPAREN) {
 			if (ctx.expr_list() != null)
 				return new RustFunctionCallKeeper(visitExpr_list(ctx.expr_list()));
 			return new RustFunctionCallKeeper(new ArrayList<Expression>());
@@ -2094,27 +2466,24 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		if (ctx.post_expr() != null)
 			return visitPost_expr(ctx.post_expr());
 
-		boolean mutable = false;
-		if (ctx.getChild(1) != null && ctx.getChild(1).getText().equals("mut"))
-			mutable = true;
-
-		switch (ctx.children.get(0).getText()) {
-		case "-":
-			return new RustMinusExpression(currentCfg, locationOf(ctx, filePath), visitPre_expr(ctx.pre_expr()));
-		case "!":
-			return new RustNotExpression(currentCfg, locationOf(ctx, filePath), visitPre_expr(ctx.pre_expr()));
-		case "&":
-			return new RustRefExpression(currentCfg, locationOf(ctx, filePath), visitPre_expr(ctx.pre_expr()), mutable);
-		case "&&":
-			return new RustDoubleRefExpression(currentCfg, locationOf(ctx, filePath), visitPre_expr(ctx.pre_expr()),
+		boolean mutable = is(ctx.getChild(1), RustTokens.MUT);
+
+		int operator = typeOf(ctx.getChild(0));
+		if (operator == RustTokens.MINUS)
+			return new RustMinusExpression(currentCfg, locations.of(ctx), visitPre_expr(ctx.pre_expr()));
+		else if (operator == RustTokens.NOT)
+			return new RustNotExpression(currentCfg, locations.of(ctx), visitPre_expr(ctx.pre_expr()));
+		else if (operator == RustTokens.AND)
+			return new RustRefExpression(currentCfg, locations.of(ctx), visitPre_expr(ctx.pre_expr()), mutable);
+		else if (operator == RustTokens.ANDAND)
+			return new RustDoubleRefExpression(currentCfg, locations.of(ctx), visitPre_expr(ctx.pre_expr()),
 					mutable);
-		case "*":
-			return new RustDerefExpression(currentCfg, locationOf(ctx, filePath), visitPre_expr(ctx.pre_expr()));
-		case "box":
-			return new RustBoxExpression(currentCfg, locationOf(ctx, filePath), visitPre_expr(ctx.pre_expr()));
-		default:
-			return null;
-		}
+		else if (operator == RustTokens.STAR)
+			return new RustDerefExpression(currentCfg, locations.of(ctx), visitPre_expr(ctx.pre_expr()));
+		else if (operator == RustTokens.BOX)
+			return new RustBoxExpression(currentCfg, locations.of(ctx), visitPre_expr(ctx.pre_expr()));
+
+		return null;
 	}
 
 	@Override
@@ -2123,9 +2492,9 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			return visitPre_expr(ctx.pre_expr());
 
 		Expression left = visitCast_expr(ctx.cast_expr());
-		Type type = new RustTypeVisitor(filePath, unit).visitTy_sum(ctx.ty_sum());
+		Type type = new RustTypeVisitor(locations, unit, symbols).visitTy_sum(ctx.ty_sum());
 
-		return new RustCastExpression(currentCfg, locationOf(ctx, filePath), type, left);
+		return new RustCastExpression(currentCfg, locations.of(ctx), type, left);
 	}
 
 	@Override
@@ -2137,11 +2506,11 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		Expression right = visitCast_expr(ctx.cast_expr());
 		String symbol = ctx.children.get(1).getText();
 		if (symbol.equals("*"))
-			return new RustMulExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustMulExpression(currentCfg, locations.of(ctx), left, right);
 		else if (symbol.equals("/"))
-			return new RustDivExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustDivExpression(currentCfg, locations.of(ctx), left, right);
 		else
-			return new RustModExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustModExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2153,9 +2522,9 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		Expression right = visitMul_expr(ctx.mul_expr());
 		String symbol = ctx.children.get(1).getText();
 		if (symbol.equals("+"))
-			return new RustAddExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustAddExpression(currentCfg, locations.of(ctx), left, right);
 		else
-			return new RustSubExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustSubExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2167,9 +2536,9 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		Expression right = visitAdd_expr(ctx.add_expr());
 		String symbol = ctx.children.get(1).getText();
 		if (symbol.equals("<"))
-			return new RustLeftShiftExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustLeftShiftExpression(currentCfg, locations.of(ctx), left, right);
 		else
-			return new RustRightShiftExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustRightShiftExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2179,7 +2548,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		Expression left = visitBit_and_expr(ctx.bit_and_expr());
 		Expression right = visitShift_expr(ctx.shift_expr());
-		return new RustAndBitwiseExpression(currentCfg, locationOf(ctx, filePath), left, right);
+		return new RustAndBitwiseExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2189,7 +2558,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		Expression left = visitBit_xor_expr(ctx.bit_xor_expr());
 		Expression right = visitBit_and_expr(ctx.bit_and_expr());
-		return new RustOrBitwiseExpression(currentCfg, locationOf(ctx, filePath), left, right);
+		return new RustOrBitwiseExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2199,7 +2568,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		Expression left = visitBit_or_expr(ctx.bit_or_expr());
 		Expression right = visitBit_xor_expr(ctx.bit_xor_expr());
-		return new RustOrBitwiseExpression(currentCfg, locationOf(ctx, filePath), left, right);
+		return new RustOrBitwiseExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2211,20 +2580,20 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 			switch (ctx.getChild(1).getText()) {
 			case "==":
-				return new RustEqualExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustEqualExpression(currentCfg, locations.of(ctx), left, right);
 			case "!=":
-				return new RustNotEqualExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustNotEqualExpression(currentCfg, locations.of(ctx), left, right);
 			case "<":
-				return new RustLessExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustLessExpression(currentCfg, locations.of(ctx), left, right);
 			case "<=":
-				return new RustLessEqualExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustLessEqualExpression(currentCfg, locations.of(ctx), left, right);
 			case ">":
 				// Since the greater equal sign is split in the g4 grammar, a
 				// check is necessary
-				if (ctx.getChild(ctx.getChildCount() - 2).getText().equals("="))
-					return new RustGreaterEqualExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				if (is(ctx.getChild(ctx.getChildCount() - 2), RustTokens.EQ))
+					return new RustGreaterEqualExpression(currentCfg, locations.of(ctx), left, right);
 
-				return new RustGreaterExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustGreaterExpression(currentCfg, locations.of(ctx), left, right);
 			}
 		}
 
@@ -2238,7 +2607,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		Expression left = visitAnd_expr(ctx.and_expr());
 		Expression right = visitCmp_expr(ctx.cmp_expr());
-		return new RustOrExpression(currentCfg, locationOf(ctx, filePath), left, right);
+		return new RustOrExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2248,7 +2617,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		Expression left = visitOr_expr(ctx.or_expr());
 		Expression right = visitAnd_expr(ctx.and_expr());
-		return new RustOrExpression(currentCfg, locationOf(ctx, filePath), left, right);
+		return new RustOrExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2259,10 +2628,10 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Expression left = visitOr_expr(ctx.or_expr().get(0));
 			Expression right = visitOr_expr(ctx.or_expr().get(1));
 
-			return new RustRangeExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustRangeExpression(currentCfg, locations.of(ctx), left, right);
 
 		} else { // Second (case with two members) and third production
-			if (ctx.getChild(0).getText().equals("..")) { // Third production
+			if (is(ctx.getChild(0), RustTokens.DOTDOT)) { // Third production
 				if (ctx.or_expr() != null) {
 					// TODO The following here is to parse "..end" which is a
 					// RangeTo type,
@@ -2283,7 +2652,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 			} else { // Second (case with two members) production
 				Expression left = visitOr_expr(ctx.or_expr().get(0));
-				return new RustRangeFromExpression(currentCfg, locationOf(ctx, filePath), left);
+				return new RustRangeFromExpression(currentCfg, locations.of(ctx), left);
 			}
 		}
 	}
@@ -2298,37 +2667,37 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 		switch (ctx.getChild(1).getText()) {
 		case "=":
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr, right);
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr, right);
 		case "*=":
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustMulExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustMulExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		case "/=":
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustDivExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustDivExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		case "%=":
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustModExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustModExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		case "+=":
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustAddExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustAddExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		case "-=":
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustSubExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustSubExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		case "<<=":
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustLeftShiftExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustLeftShiftExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		case ">": // catches only ">" which is separated in the g4 grammar
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustRightShiftExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustRightShiftExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		case "&=":
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustAndBitwiseExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustAndBitwiseExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		case "^=":
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustXorBitwiseExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustXorBitwiseExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		default: // operator "|="
-			return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-					new RustOrBitwiseExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+			return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+					new RustOrBitwiseExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 		}
 	}
 
@@ -2355,26 +2724,25 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			// TODO skipping expr_attrs pre_expr_no_struct production
 		}
 
-		boolean mutable = (ctx.getChild(1).getText().equals("mut") ? true : false);
-
-		switch (ctx.getChild(0).getText()) {
-		case "-":
-			return new RustMinusExpression(currentCfg, locationOf(ctx, filePath), expr);
-		case "!":
-			return new RustNotExpression(currentCfg, locationOf(ctx, filePath), expr);
-		case "&":
-			return new RustRefExpression(currentCfg, locationOf(ctx, filePath), expr, mutable);
-		case "&&":
-			return new RustDoubleRefExpression(currentCfg, locationOf(ctx, filePath), expr, mutable);
-		case "*":
-			return new RustDerefExpression(currentCfg, locationOf(ctx, filePath), expr);
-		case "box":
-			return new RustBoxExpression(currentCfg, locationOf(ctx, filePath), expr);
-		default:
-			// Preceding cases are exhaustive
-			throw new UnsupportedOperationException(
-					"Something went wrong during parsing of RustCodeMemeberVisito::visitPre_expr_no_struct");
-		}
+		boolean mutable = is(ctx.getChild(1), RustTokens.MUT);
+
+		int operator = typeOf(ctx.getChild(0));
+		if (operator == RustTokens.MINUS)
+			return new RustMinusExpression(currentCfg, locations.of(ctx), expr);
+		else if (operator == RustTokens.NOT)
+			return new RustNotExpression(currentCfg, locations.of(ctx), expr);
+		else if (operator == RustTokens.AND)
+			return new RustRefExpression(currentCfg, locations.of(ctx), expr, mutable);
+		else if (operator == RustTokens.ANDAND)
+			return new RustDoubleRefExpression(currentCfg, locations.of(ctx), expr, mutable);
+		else if (operator == RustTokens.STAR)
+			return new RustDerefExpression(currentCfg, locations.of(ctx), expr);
+		else if (operator == RustTokens.BOX)
+			return new RustBoxExpression(currentCfg, locations.of(ctx), expr);
+
+		// Preceding cases are exhaustive
+		throw new UnsupportedOperationException(
+				"Something went wrong during parsing of RustCodeMemeberVisito::visitPre_expr_no_struct");
 	}
 
 	@Override
@@ -2383,9 +2751,9 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			return visitPre_expr_no_struct(ctx.pre_expr_no_struct());
 
 		Expression left = visitCast_expr_no_struct(ctx.cast_expr_no_struct());
-		Type type = new RustTypeVisitor(filePath, unit).visitTy_sum(ctx.ty_sum());
+		Type type = new RustTypeVisitor(locations, unit, symbols).visitTy_sum(ctx.ty_sum());
 
-		return new RustCastExpression(currentCfg, locationOf(ctx, filePath), type, left);
+		return new RustCastExpression(currentCfg, locations.of(ctx), type, left);
 	}
 
 	@Override
@@ -2397,17 +2765,17 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Expression left = visitMul_expr_no_struct(ctx.mul_expr_no_struct());
 			Expression right = visitCast_expr_no_struct(ctx.cast_expr_no_struct());
 
-			return new RustMulExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustMulExpression(currentCfg, locations.of(ctx), left, right);
 		} else if (ctx.getChild(1).getText().equals("/")) {
 			Expression left = visitMul_expr_no_struct(ctx.mul_expr_no_struct());
 			Expression right = visitCast_expr_no_struct(ctx.cast_expr_no_struct());
 
-			return new RustDivExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustDivExpression(currentCfg, locations.of(ctx), left, right);
 		} else {
 			Expression left = visitMul_expr_no_struct(ctx.mul_expr_no_struct());
 			Expression right = visitCast_expr_no_struct(ctx.cast_expr_no_struct());
 
-			return new RustModExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustModExpression(currentCfg, locations.of(ctx), left, right);
 		}
 	}
 
@@ -2420,12 +2788,12 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Expression left = visitAdd_expr_no_struct(ctx.add_expr_no_struct());
 			Expression right = visitMul_expr_no_struct(ctx.mul_expr_no_struct());
 
-			return new RustAddExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustAddExpression(currentCfg, locations.of(ctx), left, right);
 		} else {
 			Expression left = visitAdd_expr_no_struct(ctx.add_expr_no_struct());
 			Expression right = visitMul_expr_no_struct(ctx.mul_expr_no_struct());
 
-			return new RustSubExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustSubExpression(currentCfg, locations.of(ctx), left, right);
 		}
 	}
 
@@ -2438,12 +2806,12 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Expression left = visitShift_expr_no_struct(ctx.shift_expr_no_struct());
 			Expression right = visitAdd_expr_no_struct(ctx.add_expr_no_struct());
 
-			return new RustLeftShiftExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustLeftShiftExpression(currentCfg, locations.of(ctx), left, right);
 		} else {
 			Expression left = visitShift_expr_no_struct(ctx.shift_expr_no_struct());
 			Expression right = visitAdd_expr_no_struct(ctx.add_expr_no_struct());
 
-			return new RustRightShiftExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustRightShiftExpression(currentCfg, locations.of(ctx), left, right);
 		}
 	}
 
@@ -2455,7 +2823,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		Expression left = visitBit_and_expr_no_struct(ctx.bit_and_expr_no_struct());
 		Expression right = visitShift_expr_no_struct(ctx.shift_expr_no_struct());
 
-		return new RustAndBitwiseExpression(currentCfg, locationOf(ctx, filePath), left, right);
+		return new RustAndBitwiseExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2466,7 +2834,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		Expression left = visitBit_xor_expr_no_struct(ctx.bit_xor_expr_no_struct());
 		Expression right = visitBit_and_expr_no_struct(ctx.bit_and_expr_no_struct());
 
-		return new RustXorBitwiseExpression(currentCfg, locationOf(ctx, filePath), left, right);
+		return new RustXorBitwiseExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2477,7 +2845,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 		Expression left = visitBit_or_expr_no_struct(ctx.bit_or_expr_no_struct());
 		Expression right = visitBit_xor_expr_no_struct(ctx.bit_xor_expr_no_struct());
 
-		return new RustOrBitwiseExpression(currentCfg, locationOf(ctx, filePath), left, right);
+		return new RustOrBitwiseExpression(currentCfg, locations.of(ctx), left, right);
 	}
 
 	@Override
@@ -2489,20 +2857,20 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 			switch (ctx.getChild(1).getText()) {
 			case "==":
-				return new RustEqualExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustEqualExpression(currentCfg, locations.of(ctx), left, right);
 			case "!=":
-				return new RustNotEqualExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustNotEqualExpression(currentCfg, locations.of(ctx), left, right);
 			case "<":
-				return new RustLessExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustLessExpression(currentCfg, locations.of(ctx), left, right);
 			case "<=":
-				return new RustLessEqualExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustLessEqualExpression(currentCfg, locations.of(ctx), left, right);
 			case ">":
 				// Since the greater equal sign is split in the g4 grammar, a
 				// check is necessary
-				if (ctx.getChild(ctx.getChildCount() - 2).getText().equals("="))
-					return new RustGreaterEqualExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				if (is(ctx.getChild(ctx.getChildCount() - 2), RustTokens.EQ))
+					return new RustGreaterEqualExpression(currentCfg, locations.of(ctx), left, right);
 
-				return new RustGreaterExpression(currentCfg, locationOf(ctx, filePath), left, right);
+				return new RustGreaterExpression(currentCfg, locations.of(ctx), left, right);
 			}
 		}
 
@@ -2515,7 +2883,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Expression and = visitAnd_expr_no_struct(ctx.and_expr_no_struct());
 			Expression cmp = visitCmp_expr_no_struct(ctx.cmp_expr_no_struct());
 
-			return new RustAndExpression(currentCfg, locationOf(ctx, filePath), and, cmp);
+			return new RustAndExpression(currentCfg, locations.of(ctx), and, cmp);
 		}
 
 		return visitCmp_expr_no_struct(ctx.cmp_expr_no_struct());
@@ -2527,7 +2895,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Expression or = visitOr_expr_no_struct(ctx.or_expr_no_struct());
 			Expression and = visitAnd_expr_no_struct(ctx.and_expr_no_struct());
 
-			return new RustOrExpression(currentCfg, locationOf(ctx, filePath), or, and);
+			return new RustOrExpression(currentCfg, locations.of(ctx), or, and);
 		}
 
 		return visitAnd_expr_no_struct(ctx.and_expr_no_struct());
@@ -2542,11 +2910,11 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 			Expression left = visitOr_expr_no_struct(ctx.or_expr_no_struct().get(0));
 			Expression right = visitOr_expr_no_struct(ctx.or_expr_no_struct().get(1));
 
-			return new RustRangeExpression(currentCfg, locationOf(ctx, filePath), left, right);
+			return new RustRangeExpression(currentCfg, locations.of(ctx), left, right);
 
 		} else { // Second (case with two members) and third production
 
-			if (ctx.getChild(0).getText().equals("..")) { // Third production
+			if (is(ctx.getChild(0), RustTokens.DOTDOT)) { // Third production
 				if (ctx.or_expr_no_struct() != null) {
 					// TODO The following here is to parse "..end" which is a
 					// RangeTo type,
@@ -2567,7 +2935,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 			} else { // Second (case with two members) production
 				Expression left = visitOr_expr_no_struct(ctx.or_expr_no_struct().get(0));
-				return new RustRangeFromExpression(currentCfg, locationOf(ctx, filePath), left);
+				return new RustRangeFromExpression(currentCfg, locations.of(ctx), left);
 			}
 		}
 	}
@@ -2581,34 +2949,34 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 
 			switch (ctx.getChild(1).getText()) {
 			case "=":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr, right);
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr, right);
 			case "*=":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-						new RustMulExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+						new RustMulExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 			case "/=":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-						new RustDivExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+						new RustDivExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 			case "%=":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-						new RustModExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+						new RustModExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 			case "+=":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-						new RustAddExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+						new RustAddExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 			case "<<=":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-						new RustLeftShiftExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+						new RustLeftShiftExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 			case ">":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-						new RustRightShiftExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+						new RustRightShiftExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 			case "&=":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-						new RustAndBitwiseExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+						new RustAndBitwiseExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 			case "^=":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-						new RustXorBitwiseExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+						new RustXorBitwiseExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 			case "|=":
-				return new RustAssignment(currentCfg, locationOf(ctx, filePath), rangeExpr,
-						new RustOrBitwiseExpression(currentCfg, locationOf(ctx, filePath), rangeExpr, right));
+				return new RustAssignment(currentCfg, locations.of(ctx), rangeExpr,
+						new RustOrBitwiseExpression(currentCfg, locations.of(ctx), rangeExpr, right));
 			}
 		}
 
@@ -2619,7 +2987,7 @@ public class RustCodeMemberVisitor extends RustBaseVisitor<Object> {
 	public Expression visitIdent(IdentContext ctx) {
 		// TODO: everything is mapped as a variable reference, included auto,
 		// default, union
-		return new RustVariableRef(currentCfg, locationOf(ctx, filePath), ctx.getText(), false);
+		return new RustVariableRef(currentCfg, locations.of(ctx), nameOf(ctx, symbols), false);
 	}
 
 	@Override
@@ -0,0 +1,91 @@
+package it.unipr.frontend;
+
+import it.unive.lisa.program.Program;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The result of processing a set of Rust files with
+ * {@link RustFrontend#processFiles}: the {@link Program} built from all the
+ * files, together with statistics about how they have been parsed.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public class RustCrate {
+
+	private final Program program;
+	private final Map<String, Long> parseTimes;
+	private final int llFallbacks;
+	private final LazyBodies bodies;
+
+	/**
+	 * Builds the crate.
+	 *
+	 * @param program     the program built from the files of the crate
+	 * @param parseTimes  the time, in nanoseconds, taken to lex and parse each
+	 *                        file of the crate, in processing order
+	 * @param llFallbacks the number of files whose two-stage parsing had to
+	 *                        fall back to full LL prediction
+	 * @param bodies      the function bodies of the crate still to be parsed
+	 */
+	public RustCrate(Program program, Map<String, Long> parseTimes, int llFallbacks, LazyBodies bodies) {
+		this.program = program;
+		this.parseTimes = Collections.unmodifiableMap(parseTimes);
+		this.llFallbacks = llFallbacks;
+		this.bodies = bodies;
+	}
+
+	/**
+	 * Yields the program built from the files of this crate.
+	 *
+	 * @return the program
+	 */
+	public Program getProgram() {
+		return program;
+	}
+
+	/**
+	 * Yields the time, in nanoseconds, taken to lex and parse each file of
+	 * this crate. Files are in the order in which they have been converted
+	 * into the program.
+	 *
+	 * @return the parse times, indexed by file path
+	 */
+	public Map<String, Long> getParseTimes() {
+		return parseTimes;
+	}
+
+	/**
+	 * Yields the total time, in nanoseconds, spent lexing and parsing the
+	 * files of this crate, summed over all the files.
+	 *
+	 * @return the total parse time
+	 */
+	public long getTotalParseTime() {
+		return parseTimes.values().stream().mapToLong(Long::longValue).sum();
+	}
+
+	/**
+	 * Yields the number of files of this crate whose parsing had to fall back
+	 * from SLL to full LL prediction (see
+	 * {@link RustFrontendOptions#isTwoStageParsing()}). This is always zero if
+	 * two-stage parsing is disabled.
+	 *
+	 * @return the number of LL fallbacks
+	 */
+	public int getLLFallbacks() {
+		return llFallbacks;
+	}
+
+	/**
+	 * Yields the function bodies of this crate that have not been parsed yet,
+	 * whose CFGs in the program are still empty. There are none unless
+	 * {@link RustFrontendOptions#isLazyBodies()} is set.
+	 *
+	 * @return the bodies still to be parsed
+	 */
+	public LazyBodies getBodies() {
+		return bodies;
+	}
+}
@@ -1,15 +1,14 @@
 package it.unipr.frontend;
 
-import static it.unipr.frontend.RustFrontendUtilities.locationOf;
+import static it.unipr.frontend.RustFrontendUtilities.nameOf;
 
 import it.unipr.cfg.type.RustBooleanType;
 import it.unipr.cfg.type.RustCharType;
-import it.unipr.cfg.type.RustPointerType;
 import it.unipr.cfg.type.RustStrType;
+import it.unipr.cfg.type.RustTypeLattice;
 import it.unipr.cfg.type.RustUnitType;
-import it.unipr.cfg.type.composite.RustArrayType;
+import it.unipr.cfg.type.TypeRegistry;
 import it.unipr.cfg.type.composite.RustStructType;
-import it.unipr.cfg.type.composite.RustTupleType;
 import it.unipr.cfg.type.composite.enums.EnumCompilationUnit;
 import it.unipr.cfg.type.composite.enums.RustEnumType;
 import it.unipr.cfg.type.composite.enums.RustEnumVariant;
@@ -39,7 +38,6 @@ import it.unipr.rust.antlr.RustParser.Struct_declContext;
 import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.Global;
 import it.unive.lisa.program.Program;
-import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.call.assignment.OrderPreservingAssigningStrategy;
 import it.unive.lisa.program.cfg.statement.call.assignment.ParameterAssigningStrategy;
@@ -50,14 +48,26 @@ import it.unive.lisa.program.cfg.statement.call.traversal.SingleInheritanceTrave
 import it.unive.lisa.program.cfg.statement.evaluation.EvaluationOrder;
 import it.unive.lisa.program.cfg.statement.evaluation.LeftToRightEvaluation;
 import it.unive.lisa.type.Type;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.tree.ParseTree;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * The Rust front-end for LiSA.
@@ -88,11 +98,6 @@ public class RustFrontend extends RustBaseVisitor<Object> {
 	 */
 	public static final EvaluationOrder EVALUATION_ORDER = LeftToRightEvaluation.INSTANCE;
 
-	/**
-	 * Reference to the parser
-	 */
-	private static RustParser parser;
-
 	/**
 	 * File path of the Rust program to be analyzed
 	 */
@@ -104,17 +109,59 @@ public class RustFrontend extends RustBaseVisitor<Object> {
 	 */
 	private final Program program;
 
+	/**
+	 * Types built while processing the Rust program located at
+	 * {@code filePath}
+	 */
+	private final TypeRegistry types;
+
+	/**
+	 * Names of the Rust program located at {@code filePath}
+	 */
+	private final SymbolTable symbols;
+
+	/**
+	 * Locations of the Rust program located at {@code filePath}
+	 */
+	private final SourceLocations locations;
+
+	/**
+	 * Function bodies of the Rust program located at {@code filePath} that
+	 * are still to be parsed
+	 */
+	private final LazyBodies bodies;
+
+	/**
+	 * Options of this run of the front-end
+	 */
+	private final RustFrontendOptions options;
+
 	/**
 	 * Reference to the current unit
 	 */
 	private CompilationUnit currentUnit;
 
-	private RustFrontend(String filePath) {
+	private RustFrontend(String filePath, RustFrontendOptions options) {
+		this(filePath, new Program(), new TypeRegistry(), new SymbolTable(), options);
+	}
+
+	private RustFrontend(String filePath, Program program, TypeRegistry types, SymbolTable symbols,
+			RustFrontendOptions options) {
+		this(filePath, program, types, symbols, new LazyBodies(program, types), options);
+	}
+
+	private RustFrontend(String filePath, Program program, TypeRegistry types, SymbolTable symbols,
+			LazyBodies bodies, RustFrontendOptions options) {
 		this.filePath = filePath;
-		this.program = new Program();
+		this.program = program;
+		this.types = types;
+		this.symbols = symbols;
+		this.locations = new SourceLocations(filePath);
+		this.bodies = bodies;
+		this.options = options;
 	}
 
-	private void registerTypes() {
+	static void registerTypes(Program program, TypeRegistry types) {
 		program.registerType(RustF32Type.getInstance());
 		program.registerType(RustF64Type.getInstance());
 		program.registerType(RustI8Type.getInstance());
@@ -133,11 +180,32 @@ public class RustFrontend extends RustBaseVisitor<Object> {
 		program.registerType(RustCharType.getInstance());
 		program.registerType(RustStrType.getInstance());
 		program.registerType(RustUnitType.getInstance());
-		RustPointerType.all().forEach(program::registerType);
-		RustStructType.all().forEach(program::registerType);
-		RustEnumType.all().forEach(program::registerType);
-		RustArrayType.all().forEach(program::registerType);
-		RustTupleType.all().forEach(program::registerType);
+		types.pointers().forEach(program::registerType);
+		types.structs().forEach(program::registerType);
+		types.enums().forEach(program::registerType);
+		types.arrays().forEach(program::registerType);
+		types.tuples().forEach(program::registerType);
+	}
+
+	/**
+	 * Registers in a program the types interned by a registry since its
+	 * lattice had {@code from} identifiers, that is, since the call to this
+	 * method that returned {@code from}. The primitive types are not among
+	 * them: they are registered by {@link #registerTypes(Program, TypeRegistry)}.
+	 * 
+	 * @param program the function registering a type in the program
+	 * @param types   the registry
+	 * @param from    the number of identifiers of the lattice of
+	 *                    {@code types} when its types were last registered
+	 * 
+	 * @return the number of identifiers of the lattice of {@code types}, to be
+	 *             passed to the next call
+	 */
+	static int registerTypes(Consumer<Type> program, TypeRegistry types, int from) {
+		RustTypeLattice lattice = types.getLattice();
+		int to = lattice.size();
+		lattice.registered(from, to).forEach(program);
+		return to;
 	}
 
 	/**
@@ -152,16 +220,195 @@ public class RustFrontend extends RustBaseVisitor<Object> {
 	 * @throws IOException if anything goes wrong during reading the file
 	 */
 	public static Program processFile(String filePath) throws IOException {
-		return new RustFrontend(filePath).toLiSAProgram();
+		return processFile(filePath, new RustFrontendOptions());
+	}
+
+	/**
+	 * Yields the {@link Program} corresponding to the Rust program located at
+	 * {@code filePath}, processed with the given options.
+	 * 
+	 * @param filePath the file path where the Rust program to be analyzed
+	 * @param options  the options of the front-end
+	 * 
+	 * @return the {@link Program} corresponding to the Rust program located at
+	 *             {@code filePath}
+	 * 
+	 * @throws IOException if anything goes wrong during reading the file
+	 */
+	public static Program processFile(String filePath, RustFrontendOptions options) throws IOException {
+		return new RustFrontend(filePath, options).toLiSAProgram();
+	}
+
+	/**
+	 * Converts the Rust program located at {@code filePath}, handing its
+	 * compilation units and its CFGs to {@code sink} as soon as each of them
+	 * is built, instead of collecting them into a {@link Program}. The parse
+	 * tree of each top-level item is released once its CFGs are built, so
+	 * that the sink can process them while the rest of the file is converted.
+	 * 
+	 * @param filePath the file path where the Rust program to be analyzed
+	 * @param sink     the consumer of the units and of the CFGs
+	 * 
+	 * @throws IOException if anything goes wrong during reading the file
+	 */
+	public static void processFile(String filePath, CfgSink sink) throws IOException {
+		processFile(filePath, new RustFrontendOptions(), sink);
+	}
+
+	/**
+	 * Converts the Rust program located at {@code filePath} with the given
+	 * options, handing its compilation units and its CFGs to {@code sink} (see
+	 * {@link #processFile(String, CfgSink)}). CFGs are always built
+	 * sequentially, and lazy bodies are built before being handed to the
+	 * sink.
+	 * 
+	 * @param filePath the file path where the Rust program to be analyzed
+	 * @param options  the options of the front-end
+	 * @param sink     the consumer of the units and of the CFGs
+	 * 
+	 * @throws IOException if anything goes wrong during reading the file
+	 */
+	public static void processFile(String filePath, RustFrontendOptions options, CfgSink sink)
+			throws IOException {
+		new RustFrontend(filePath, options).stream(sink);
+	}
+
+	/**
+	 * Yields the {@link Program} corresponding to the whole Rust crate rooted
+	 * at {@code root}, that is, to all the {@code .rs} files contained in
+	 * {@code root} and in its sub-directories. Files are parsed in parallel on
+	 * the common {@link ForkJoinPool}.
+	 * 
+	 * @param root the root directory of the crate
+	 * 
+	 * @return the crate corresponding to the Rust files under {@code root}
+	 * 
+	 * @throws IOException if anything goes wrong during reading the files
+	 */
+	public static RustCrate processCrate(Path root) throws IOException {
+		return processCrate(root, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Yields the {@link Program} corresponding to the whole Rust crate rooted
+	 * at {@code root}, that is, to all the {@code .rs} files contained in
+	 * {@code root} and in its sub-directories. Files are parsed in parallel on
+	 * {@code executor}.
+	 * 
+	 * @param root     the root directory of the crate
+	 * @param executor the executor parsing the files
+	 * 
+	 * @return the crate corresponding to the Rust files under {@code root}
+	 * 
+	 * @throws IOException if anything goes wrong during reading the files
+	 */
+	public static RustCrate processCrate(Path root, Executor executor) throws IOException {
+		try (Stream<Path> walk = Files.walk(root)) {
+			List<Path> files = walk.filter(f -> Files.isRegularFile(f) && f.toString().endsWith(".rs"))
+					.collect(Collectors.toList());
+			return processFiles(files, executor);
+		}
 	}
 
 	/**
-	 * Yields the instance of {@link RustParser}.
+	 * Yields a single {@link Program} containing the compilation units, the
+	 * CFGs and the types of all the given Rust files. Each file is lexed and
+	 * parsed by a {@link RustLexer} and a {@link RustParser} of the pools of
+	 * {@link RustParsers}, in parallel on {@code executor}. Parse trees are
+	 * then converted on the calling thread, in the lexicographic order of the
+	 * paths of the files, so that the resulting program does not depend on
+	 * the order of {@code files} nor on scheduling. Types are shared among the files: struct and enum types
+	 * declared in a file can be used in all the others.
+	 * 
+	 * @param files    the Rust files to process
+	 * @param executor the executor parsing the files
+	 * 
+	 * @return the crate corresponding to {@code files}
 	 * 
-	 * @return the reference to the parser
+	 * @throws IOException if anything goes wrong during reading the files
 	 */
-	public static RustParser getParser() {
-		return parser;
+	public static RustCrate processFiles(Collection<Path> files, Executor executor) throws IOException {
+		return processFiles(files, executor, new RustFrontendOptions());
+	}
+
+	/**
+	 * Yields a single {@link Program} containing the compilation units, the
+	 * CFGs and the types of all the given Rust files, processed with the given
+	 * options. See {@link #processFiles(Collection, Executor)}.
+	 * 
+	 * @param files    the Rust files to process
+	 * @param executor the executor parsing the files
+	 * @param options  the options of the front-end
+	 * 
+	 * @return the crate corresponding to {@code files}
+	 * 
+	 * @throws IOException if anything goes wrong during reading the files
+	 */
+	public static RustCrate processFiles(Collection<Path> files, Executor executor, RustFrontendOptions options)
+			throws IOException {
+		List<Path> sorted = new ArrayList<>(new TreeSet<>(files));
+
+		// names are interned across all the files
+		SymbolTable symbols = new SymbolTable();
+		CompactTokenFactory tokens = new CompactTokenFactory(symbols);
+		List<CompletableFuture<ParsedFile>> parsing = new ArrayList<>(sorted.size());
+		for (Path file : sorted)
+			parsing.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return ParsedFile.parse(file.toString(), options, tokens);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, executor));
+
+		List<ParsedFile> parsed = new ArrayList<>(sorted.size());
+		for (CompletableFuture<ParsedFile> file : parsing)
+			try {
+				parsed.add(file.join());
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof UncheckedIOException)
+					throw ((UncheckedIOException) e.getCause()).getCause();
+				throw e;
+			}
+
+		Program program = new Program();
+		TypeRegistry types = new TypeRegistry();
+		LazyBodies bodies = new LazyBodies(program, types);
+		List<RustFrontend> frontends = new ArrayList<>(parsed.size());
+		for (ParsedFile file : parsed) {
+			frontends.add(new RustFrontend(file.getPath(), program, types, symbols, bodies, options));
+			bodies.addAll(file.getBodies());
+		}
+
+		TypeRegistry previous = TypeRegistry.bind(types);
+		try {
+			// same phases of visitMod_body, but across all the files
+			for (int i = 0; i < parsed.size(); i++) {
+				CrateContext crate = parsed.get(i).getTree();
+				frontends.get(i).addMainUnit();
+				frontends.get(i).visitTypeDeclarations(crate.mod_body().item());
+			}
+
+			registerUnits(program, types);
+
+			List<Supplier<Runnable>> items = new ArrayList<>();
+			for (int i = 0; i < parsed.size(); i++)
+				items.addAll(frontends.get(i).itemBuilders(parsed.get(i).getTree().mod_body()));
+			buildItems(items, types, options);
+
+			registerTypes(program, types);
+		} finally {
+			TypeRegistry.bind(previous);
+		}
+
+		Map<String, Long> parseTimes = new LinkedHashMap<>();
+		int fallbacks = 0;
+		for (ParsedFile file : parsed) {
+			parseTimes.put(file.getPath(), file.getParseTime());
+			if (file.hasFallenBack())
+				fallbacks++;
+		}
+		return new RustCrate(program, parseTimes, fallbacks, bodies);
 	}
 
 	/**
@@ -174,67 +421,197 @@ public class RustFrontend extends RustBaseVisitor<Object> {
 	 * @throws IOException if anything goes wrong during reading the file
 	 */
 	private Program toLiSAProgram() throws IOException {
+		ParsedFile parsed = ParsedFile.parse(filePath, options, new CompactTokenFactory(symbols));
+		bodies.addAll(parsed.getBodies());
+
+		// the static type facades resolve to this run's registry while the
+		// program is built
+		TypeRegistry previous = TypeRegistry.bind(types);
+		try {
+			visitCrate(parsed.getTree());
+		} finally {
+			TypeRegistry.bind(previous);
+		}
 
-		InputStream is = new FileInputStream(filePath);
-		RustLexer lexer = new RustLexer(CharStreams.fromStream(is, StandardCharsets.UTF_8));
-		RustParser parser = new RustParser(new CommonTokenStream(lexer));
-		RustFrontend.parser = parser;
-
-		ParseTree tree = parser.crate();
-		visitCrate((CrateContext) tree);
+		// a single file yields no crate where bodies can be requested
+		bodies.materializeAll();
 		return program;
 	}
 
+	private void stream(CfgSink sink) throws IOException {
+		ParsedFile parsed = ParsedFile.parse(filePath, options, new CompactTokenFactory(symbols));
+		bodies.addAll(parsed.getBodies());
+
+		// the tree keeps no reference to its items, that are released one by
+		// one once converted
+		Mod_bodyContext module = parsed.getTree().mod_body();
+		List<ItemContext> items = new ArrayList<>(module.item());
+		if (module.children != null)
+			module.children.clear();
+
+		TypeRegistry previous = TypeRegistry.bind(types);
+		try {
+			addMainUnit();
+			visitTypeDeclarations(items);
+			registerUnits(program, types);
+			registerTypes(program, types);
+			int registered = types.getLattice().size();
+			program.getRegisteredTypes().forEach(sink::acceptType);
+			for (CompilationUnit unit : program.getUnits())
+				sink.acceptUnit(unit);
+
+			Consumer<Type> register = type -> {
+				program.registerType(type);
+				sink.acceptType(type);
+			};
+			for (int i = 0; i < items.size(); i++) {
+				for (Pair<CompilationUnit, CFG> cfg : buildItem(items.get(i), locations)) {
+					CFG built = bodies.materialize(cfg.getRight());
+					// the types first met in the body are known before the CFG
+					registered = registerTypes(register, types, registered);
+					sink.acceptCfg(built);
+				}
+				items.set(i, null);
+			}
+		} finally {
+			TypeRegistry.bind(previous);
+		}
+	}
+
 	@Override
 	public Object visitCrate(CrateContext ctx) {
-		CompilationUnit mainUnit = new CompilationUnit(new SourceCodeLocation(filePath, 0, 0), filePath, false);
+		addMainUnit();
+		return visitMod_body(ctx.mod_body());
+	}
+
+	private void addMainUnit() {
+		CompilationUnit mainUnit = new CompilationUnit(locations.of(0, 0), filePath, false);
 		currentUnit = mainUnit;
 		program.addCompilationUnit(mainUnit);
-		return visitMod_body(ctx.mod_body());
 	}
 
 	@Override
 	public Void visitMod_body(Mod_bodyContext ctx) {
 		// TODO: skipping for the moment inner_attr
+		// type declarations are visited first, so that their units are
+		// registered once and before any code member refers to them
+		visitTypeDeclarations(ctx.item());
+		registerUnits(program, types);
+		buildItems(itemBuilders(ctx), types, options);
+		registerTypes(program, types);
+		return null;
+	}
+
+	private void visitTypeDeclarations(List<ItemContext> items) {
+		for (ItemContext i : items)
+			if (i.pub_item() != null && (i.pub_item().struct_decl() != null ||
+					i.pub_item().enum_decl() != null))
+				visitPub_item(i.pub_item());
+	}
+
+	/**
+	 * Yields the builders of the CFGs of the items of a module. Each builder
+	 * yields the action adding the CFGs it has built to the program, so that
+	 * builders can run in any order, also concurrently, while the program is
+	 * modified in source order.
+	 * 
+	 * @param ctx the module
+	 * 
+	 * @return the builders of the items of {@code ctx}, in source order
+	 */
+	private List<Supplier<Runnable>> itemBuilders(Mod_bodyContext ctx) {
+		List<Supplier<Runnable>> builders = new ArrayList<>(ctx.item().size());
 		for (ItemContext i : ctx.item())
-			visitItem(i);
+			// locations are shared only among sequential builders
+			builders.add(() -> {
+				List<Pair<CompilationUnit, CFG>> cfgs = buildItem(i,
+						options.isParallelCfgs() ? new SourceLocations(filePath) : locations);
+				return () -> addCfgs(cfgs);
+			});
+		return builders;
+	}
 
-		registerTypes();
-		return null;
+	private static void buildItems(List<Supplier<Runnable>> builders, TypeRegistry types,
+			RustFrontendOptions options) {
+		if (!options.isParallelCfgs()) {
+			for (Supplier<Runnable> builder : builders)
+				builder.get().run();
+			return;
+		}
+
+		List<ForkJoinTask<Runnable>> tasks = new ArrayList<>(builders.size());
+		for (Supplier<Runnable> builder : builders)
+			tasks.add(ForkJoinPool.commonPool().submit(() -> {
+				TypeRegistry previous = TypeRegistry.bind(types);
+				try {
+					return builder.get();
+				} finally {
+					TypeRegistry.bind(previous);
+				}
+			}));
+
+		for (ForkJoinTask<Runnable> task : tasks)
+			task.join().run();
+	}
+
+	private static void registerUnits(Program program, TypeRegistry types) {
+		for (Type t : types.structs())
+			program.addCompilationUnit(((RustStructType) t).getUnit());
+
+		for (Type t : types.enums())
+			program.addCompilationUnit(((RustEnumType) t).getUnit());
 	}
 
 	@Override
 	public Void visitItem(ItemContext ctx) {
-		if (ctx.pub_item() != null && (ctx.pub_item().struct_decl() != null ||
-				ctx.pub_item().enum_decl() != null))
-			visitPub_item(ctx.pub_item());
+		addCfgs(buildItem(ctx, locations));
+		return null;
+	}
 
-		for (Type t : RustStructType.all())
-			program.addCompilationUnit(((RustStructType) t).getUnit());
+	private void addCfgs(List<Pair<CompilationUnit, CFG>> cfgs) {
+		for (Pair<CompilationUnit, CFG> cfg : cfgs)
+			if (cfg.getLeft() == null)
+				program.addCFG(cfg.getRight());
+			else
+				cfg.getLeft().addInstanceCFG(cfg.getRight());
+	}
 
-		for (Type t : RustEnumType.all())
-			program.addCompilationUnit(((RustEnumType) t).getUnit());
+	/**
+	 * Builds the CFGs of an item, without adding them to the program.
+	 * 
+	 * @param ctx       the item
+	 * @param locations the factory of the locations of the CFGs
+	 * 
+	 * @return the CFGs of {@code ctx}, each with the unit it is an instance CFG
+	 *             of, or with {@code null} if it is a CFG of the program
+	 */
+	private List<Pair<CompilationUnit, CFG>> buildItem(ItemContext ctx, SourceLocations locations) {
+		List<Pair<CompilationUnit, CFG>> cfgs = new ArrayList<>(1);
 
 		if (ctx.impl_block() != null) {
-			RustStructType struct = RustStructType.get(ctx.impl_block().impl_what().getText());
+			RustStructType struct = RustStructType.get(symbols.name(ctx.impl_block().impl_what().getText()));
 			CompilationUnit u = struct.getUnit();
 
-			List<CFG> implCfg = new RustCodeMemberVisitor(filePath, program, u).visitImpl_block(ctx.impl_block());
+			List<CFG> implCfg = new RustCodeMemberVisitor(locations, program, u, symbols, bodies, options)
+					.visitImpl_block(ctx.impl_block());
 
 			for (CFG cfg : implCfg)
-				u.addInstanceCFG(cfg);
+				cfgs.add(Pair.of(u, cfg));
 		}
 
-		if (ctx.pub_item() != null && ctx.pub_item().fn_decl() != null)
-			program.addCFG(new RustCodeMemberVisitor(filePath, program, currentUnit)
-					.visitFn_decl(ctx.pub_item().fn_decl()));
+		if (ctx.pub_item() != null && ctx.pub_item().fn_decl() != null) {
+			CFG cfg = new RustCodeMemberVisitor(locations, program, currentUnit, symbols, bodies, options)
+					.visitFn_decl(ctx.pub_item().fn_decl());
+			cfgs.add(Pair.of(null, cfg));
+		}
 
 		if (ctx.item_macro_use() != null)
 			// Both macro definitions and calls are here
 			// TODO parsing only calls for now
-			new RustCodeMemberVisitor(filePath, program, currentUnit).visitItem_macro_use(ctx.item_macro_use());
+			new RustCodeMemberVisitor(locations, program, currentUnit, symbols, bodies, options)
+					.visitItem_macro_use(ctx.item_macro_use());
 
-		return null;
+		return cfgs;
 	}
 
 	@Override
@@ -251,12 +628,12 @@ public class RustFrontend extends RustBaseVisitor<Object> {
 	@Override
 	public Void visitStruct_decl(Struct_declContext ctx) {
 		// TODO skipping ty_params? production
-		String name = ctx.ident().getText();
-		CompilationUnit structUnit = new CompilationUnit(locationOf(ctx, filePath), name, true);
+		String name = nameOf(ctx.ident(), symbols);
+		CompilationUnit structUnit = new CompilationUnit(locations.of(ctx), name, true);
 
 		RustStructType.lookup(name, structUnit);
 
-		List<Global> fields = new RustTypeVisitor(filePath, currentUnit).visitStruct_tail(ctx.struct_tail());
+		List<Global> fields = new RustTypeVisitor(locations, currentUnit, symbols).visitStruct_tail(ctx.struct_tail());
 
 		for (Global f : fields)
 			structUnit.addInstanceGlobal(f);
@@ -267,10 +644,10 @@ public class RustFrontend extends RustBaseVisitor<Object> {
 	@Override
 	public Void visitEnum_decl(Enum_declContext ctx) {
 		// TODO skipping ty_params? and where_clause?
-		String name = ctx.ident().getText();
-		EnumCompilationUnit enumUnit = new EnumCompilationUnit(locationOf(ctx, filePath), name, true);
+		String name = nameOf(ctx.ident(), symbols);
+		EnumCompilationUnit enumUnit = new EnumCompilationUnit(locations.of(ctx), name, true);
 
-		List<RustEnumVariant> enumVariants = new RustTypeVisitor(filePath, currentUnit)
+		List<RustEnumVariant> enumVariants = new RustTypeVisitor(locations, currentUnit, symbols)
 				.visitEnum_variant_list(ctx.enum_variant_list());
 
 		for (RustEnumVariant variant : enumVariants)
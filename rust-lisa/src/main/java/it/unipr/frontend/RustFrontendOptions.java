@@ -0,0 +1,323 @@
+package it.unipr.frontend;
+
+import it.unipr.rust.antlr.RustParser;
+import it.unive.lisa.program.cfg.CFG;
+import java.util.function.Consumer;
+
+/**
+ * Options of the Rust front-end. Setters return the options themselves, so
+ * that they can be chained.
+ * 
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public class RustFrontendOptions {
+
+	/**
+	 * Whether files are parsed with SLL prediction first, falling back to full
+	 * LL prediction only if SLL fails
+	 */
+	private boolean twoStageParsing = true;
+
+	/**
+	 * Whether function bodies are parsed, and their CFGs built, only when
+	 * first requested
+	 */
+	private boolean lazyBodies = false;
+
+	/**
+	 * Whether the CFGs of different items are built in parallel
+	 */
+	private boolean parallelCfgs = false;
+
+	/**
+	 * Whether the top-level items of each file are parsed in parallel
+	 */
+	private boolean parallelParsing = false;
+
+	/**
+	 * The consumer of the parser of each file, if any
+	 */
+	private Consumer<RustParser> parserInspector = null;
+
+	/**
+	 * Whether control flow is lowered without join nodes
+	 */
+	private boolean joinFreeLowering = false;
+
+	/**
+	 * The consumer of each CFG as lowered, if any
+	 */
+	private Consumer<CFG> loweringInspector = null;
+
+	/**
+	 * Whether matches on literals are lowered to decision trees
+	 */
+	private boolean matchDecisionTree = false;
+
+	/**
+	 * Whether for loops over ranges are lowered to counted loops
+	 */
+	private boolean countedRangeLoops = false;
+
+	/**
+	 * Yields whether files are parsed in two stages: first with the faster SLL
+	 * prediction, bailing out at the first syntax error, and then, only if the
+	 * first stage failed, with full LL prediction. The two modes accept the
+	 * same inputs, and only the second one reports syntax errors. Defaults to
+	 * {@code true}.
+	 * 
+	 * @return whether two-stage parsing is enabled
+	 */
+	public boolean isTwoStageParsing() {
+		return twoStageParsing;
+	}
+
+	/**
+	 * Sets whether files are parsed in two stages. See
+	 * {@link #isTwoStageParsing()}.
+	 * 
+	 * @param twoStageParsing whether two-stage parsing is enabled
+	 * 
+	 * @return these options
+	 */
+	public RustFrontendOptions setTwoStageParsing(boolean twoStageParsing) {
+		this.twoStageParsing = twoStageParsing;
+		return this;
+	}
+
+	/**
+	 * Yields whether the bodies of functions and methods are parsed, and their
+	 * CFGs built, only when first requested through
+	 * {@link RustCrate#getBodies()}. Files are first parsed without the bodies
+	 * of the functions declared at the top level and in {@code impl} blocks,
+	 * that are found by matching braces on the tokens: the CFGs of these
+	 * functions are added to the program with their descriptor, but empty.
+	 * This only applies to {@link RustFrontend#processFiles}, that yields the
+	 * crate where bodies are requested. Defaults to {@code false}.
+	 * 
+	 * @return whether function bodies are parsed lazily
+	 */
+	public boolean isLazyBodies() {
+		return lazyBodies;
+	}
+
+	/**
+	 * Sets whether function bodies are parsed lazily. See
+	 * {@link #isLazyBodies()}.
+	 * 
+	 * @param lazyBodies whether function bodies are parsed lazily
+	 * 
+	 * @return these options
+	 */
+	public RustFrontendOptions setLazyBodies(boolean lazyBodies) {
+		this.lazyBodies = lazyBodies;
+		return this;
+	}
+
+	/**
+	 * Yields whether the CFGs of the functions and of the {@code impl} blocks
+	 * of the program are built in parallel, on the common
+	 * {@link java.util.concurrent.ForkJoinPool}, one task for each item. The
+	 * CFGs are added to the program in source order, so the program is the
+	 * same as when they are built sequentially. Tasks run on the stacks of
+	 * the threads of the pool, that might be too small for deeply nested
+	 * bodies. Defaults to {@code false}.
+	 * 
+	 * @return whether CFGs are built in parallel
+	 */
+	public boolean isParallelCfgs() {
+		return parallelCfgs;
+	}
+
+	/**
+	 * Sets whether the CFGs of the program are built in parallel. See
+	 * {@link #isParallelCfgs()}.
+	 * 
+	 * @param parallelCfgs whether CFGs are built in parallel
+	 * 
+	 * @return these options
+	 */
+	public RustFrontendOptions setParallelCfgs(boolean parallelCfgs) {
+		this.parallelCfgs = parallelCfgs;
+		return this;
+	}
+
+	/**
+	 * Yields whether the top-level items of each file are parsed in parallel,
+	 * on the common {@link java.util.concurrent.ForkJoinPool}. Each file is
+	 * lexed at once, and its tokens are split at the ends of its top-level
+	 * items, that are found by matching delimiters. The slices of items are
+	 * parsed by different parsers, and joined into the same parse tree that
+	 * parsing the whole file yields. If parsing any slice fails, the whole
+	 * file is parsed instead. Defaults to {@code false}.
+	 * 
+	 * @return whether the items of each file are parsed in parallel
+	 */
+	public boolean isParallelParsing() {
+		return parallelParsing;
+	}
+
+	/**
+	 * Sets whether the top-level items of each file are parsed in parallel.
+	 * See {@link #isParallelParsing()}.
+	 * 
+	 * @param parallelParsing whether the items of each file are parsed in
+	 *                            parallel
+	 * 
+	 * @return these options
+	 */
+	public RustFrontendOptions setParallelParsing(boolean parallelParsing) {
+		this.parallelParsing = parallelParsing;
+		return this;
+	}
+
+	/**
+	 * Yields the consumer that receives the {@link RustParser} of each file,
+	 * right after the file is parsed and before it is converted, on the thread
+	 * that parsed the file. The front-end keeps no reference to parsers,
+	 * token streams and parse trees once a file is converted, and parsers are
+	 * reset and reused afterwards (see {@link RustParsers}), so this is the
+	 * only way of accessing them, and they must not be retained. When the
+	 * items of a file are parsed in parallel, the consumer receives the parser
+	 * of each slice of the items. Defaults to {@code null}, that is, no
+	 * consumer.
+	 * 
+	 * @return the consumer of the parsers, or {@code null}
+	 */
+	public Consumer<RustParser> getParserInspector() {
+		return parserInspector;
+	}
+
+	/**
+	 * Sets the consumer that receives the parser of each file. See
+	 * {@link #getParserInspector()}.
+	 * 
+	 * @param parserInspector the consumer of the parsers, or {@code null}
+	 * 
+	 * @return these options
+	 */
+	public RustFrontendOptions setParserInspector(Consumer<RustParser> parserInspector) {
+		this.parserInspector = parserInspector;
+		return this;
+	}
+
+	/**
+	 * Yields whether control flow is lowered without join nodes. Branches,
+	 * loops and empty statements are lowered to empty statements where their
+	 * paths join: with this option, the edges reaching such a statement are
+	 * kept aside until the statement that follows it is built, and are then
+	 * redirected there, so that the statement is never added to the CFG. Only
+	 * the statements that branch, or that end a body, are added. The CFGs of
+	 * the program are the same either way, as the empty statements left are
+	 * removed when each CFG is simplified, but there are fewer nodes and edges
+	 * to build and to simplify. Defaults to {@code false}.
+	 * 
+	 * @return whether control flow is lowered without join nodes
+	 */
+	public boolean isJoinFreeLowering() {
+		return joinFreeLowering;
+	}
+
+	/**
+	 * Sets whether control flow is lowered without join nodes. See
+	 * {@link #isJoinFreeLowering()}.
+	 * 
+	 * @param joinFreeLowering whether control flow is lowered without join
+	 *                             nodes
+	 * 
+	 * @return these options
+	 */
+	public RustFrontendOptions setJoinFreeLowering(boolean joinFreeLowering) {
+		this.joinFreeLowering = joinFreeLowering;
+		return this;
+	}
+
+	/**
+	 * Yields the consumer that receives each CFG right after its body is
+	 * lowered, before its return statements are fixed and before it is
+	 * simplified, e.g., to measure the size of the lowering. The CFG must not
+	 * be modified. Defaults to {@code null}, that is, no consumer.
+	 * 
+	 * @return the consumer of the lowered CFGs, or {@code null}
+	 */
+	public Consumer<CFG> getLoweringInspector() {
+		return loweringInspector;
+	}
+
+	/**
+	 * Sets the consumer that receives each CFG as lowered. See
+	 * {@link #getLoweringInspector()}.
+	 * 
+	 * @param loweringInspector the consumer of the lowered CFGs, or
+	 *                              {@code null}
+	 * 
+	 * @return these options
+	 */
+	public RustFrontendOptions setLoweringInspector(Consumer<CFG> loweringInspector) {
+		this.loweringInspector = loweringInspector;
+		return this;
+	}
+
+	/**
+	 * Yields whether matches on integer and character literals are lowered to
+	 * balanced decision trees. A match is otherwise lowered to a chain of
+	 * guards, one for each arm, tried in order: an arm is reached after as
+	 * many guards as the arms preceding it. In the tree, each guard compares
+	 * the matched expression with the median of the literals left, so that an
+	 * arm is reached after a logarithmic number of guards. This only applies
+	 * to matches whose patterns are all literals, but for a wildcard or a
+	 * binding in the last arm, and that have no if clauses. Defaults to
+	 * {@code false}.
+	 * 
+	 * @return whether matches on literals are lowered to decision trees
+	 */
+	public boolean isMatchDecisionTree() {
+		return matchDecisionTree;
+	}
+
+	/**
+	 * Sets whether matches on literals are lowered to decision trees. See
+	 * {@link #isMatchDecisionTree()}.
+	 * 
+	 * @param matchDecisionTree whether matches on literals are lowered to
+	 *                              decision trees
+	 * 
+	 * @return these options
+	 */
+	public RustFrontendOptions setMatchDecisionTree(boolean matchDecisionTree) {
+		this.matchDecisionTree = matchDecisionTree;
+		return this;
+	}
+
+	/**
+	 * Yields whether for loops over ranges, i.e., {@code for x in a..b} and
+	 * {@code for x in a..}, are lowered to counted loops. A for loop is
+	 * otherwise lowered to a call to {@code next} on the iterated expression
+	 * at each iteration, whose result is checked against {@code None}: with
+	 * this option, a loop over a range keeps a counter, starting from
+	 * {@code a}, that is checked against {@code b}, evaluated once before the
+	 * loop, and incremented at the end of each iteration. The variable of the
+	 * loop is bound to the counter at the start of each iteration. Defaults to
+	 * {@code false}.
+	 * 
+	 * @return whether for loops over ranges are lowered to counted loops
+	 */
+	public boolean isCountedRangeLoops() {
+		return countedRangeLoops;
+	}
+
+	/**
+	 * Sets whether for loops over ranges are lowered to counted loops. See
+	 * {@link #isCountedRangeLoops()}.
+	 * 
+	 * @param countedRangeLoops whether for loops over ranges are lowered to
+	 *                              counted loops
+	 * 
+	 * @return these options
+	 */
+	public RustFrontendOptions setCountedRangeLoops(boolean countedRangeLoops) {
+		this.countedRangeLoops = countedRangeLoops;
+		return this;
+	}
+}
@@ -1,5 +1,6 @@
 package it.unipr.frontend;
 
+import it.unipr.rust.antlr.RustParser.IdentContext;
 import it.unive.lisa.program.SourceCodeLocation;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -64,4 +65,18 @@ public class RustFrontendUtilities {
 	static public SourceCodeLocation locationOf(ParserRuleContext ctx, String filePath) {
 		return new SourceCodeLocation(filePath, getLine(ctx), getCol(ctx));
 	}
+
+	/**
+	 * Yields the canonical string of the name of an identifier. Identifiers
+	 * are made of a single token, whose text is read without building a new
+	 * string as {@link IdentContext#getText()} does.
+	 * 
+	 * @param ctx     the identifier
+	 * @param symbols the table of the names of the program
+	 * 
+	 * @return the name of the identifier, interned in {@code symbols}
+	 */
+	static public String nameOf(IdentContext ctx, SymbolTable symbols) {
+		return symbols.name(ctx.getStart().getText());
+	}
 }
@@ -0,0 +1,148 @@
+package it.unipr.frontend;
+
+import it.unipr.rust.antlr.RustLexer;
+import it.unipr.rust.antlr.RustParser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionMode;
+
+/**
+ * The pools of the lexers and of the parsers of the front-end, one for each
+ * thread. Pooled instances are reset with a new input when they are acquired,
+ * and their input is dropped when they are released, so that they keep no
+ * tokens nor parse trees reachable in the meanwhile. Each instance serves a
+ * single run at a time: nested runs on the same thread acquire different
+ * instances.
+ * <p>
+ * The first parse in a JVM is much slower than the following ones, as it
+ * deserializes the ATNs of the grammar and fills the prediction caches, that
+ * are shared by all the lexers and parsers. {@link #warmUp()} pays this cost
+ * ahead, e.g., at startup.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public final class RustParsers {
+
+	private static final ThreadLocal<Deque<RustLexer>> LEXERS = ThreadLocal.withInitial(ArrayDeque::new);
+	private static final ThreadLocal<Deque<RustParser>> PARSERS = ThreadLocal.withInitial(ArrayDeque::new);
+
+	/**
+	 * The bundled snippets parsed by {@link #warmUp()}
+	 */
+	private static final String CORPUS = "warm-up.rs";
+
+	private static boolean warm = false;
+
+	private RustParsers() {
+		// utility class
+	}
+
+	/**
+	 * Acquires a lexer of the current thread, reading from the given input.
+	 *
+	 * @param input  the input of the lexer
+	 * @param tokens the factory of the tokens of the lexer
+	 *
+	 * @return the lexer
+	 */
+	static RustLexer lexer(CharStream input, TokenFactory<?> tokens) {
+		RustLexer lexer = LEXERS.get().poll();
+		if (lexer == null)
+			lexer = new RustLexer(input);
+		else
+			lexer.setInputStream(input);
+
+		lexer.setTokenFactory(tokens);
+		return lexer;
+	}
+
+	/**
+	 * Releases a lexer acquired by the current thread through
+	 * {@link #lexer(CharStream, TokenFactory)}.
+	 *
+	 * @param lexer the lexer
+	 */
+	static void release(RustLexer lexer) {
+		lexer.setInputStream(CharStreams.fromString(""));
+		lexer.setTokenFactory(CommonTokenFactory.DEFAULT);
+		LEXERS.get().push(lexer);
+	}
+
+	/**
+	 * Acquires a parser of the current thread, reading from the given tokens.
+	 *
+	 * @param tokens the tokens to parse
+	 *
+	 * @return the parser
+	 */
+	static RustParser parser(TokenStream tokens) {
+		RustParser parser = PARSERS.get().poll();
+		if (parser == null)
+			return new RustParser(tokens);
+
+		parser.setTokenStream(tokens);
+		return parser;
+	}
+
+	/**
+	 * Releases a parser acquired by the current thread through
+	 * {@link #parser(TokenStream)}. Its input is dropped, together with the
+	 * state of its error handler and of its prediction, that keeps the
+	 * outermost context of the last prediction. The prediction caches, shared
+	 * by all the parsers, are kept.
+	 *
+	 * @param parser the parser
+	 */
+	static void release(RustParser parser) {
+		parser.setTokenStream(new CommonTokenStream(new ListTokenSource(Collections.emptyList())));
+		parser.setErrorHandler(new DefaultErrorStrategy());
+
+		ParserATNSimulator last = parser.getInterpreter();
+		ParserATNSimulator fresh = new ParserATNSimulator(parser, parser.getATN(), last.decisionToDFA,
+				last.getSharedContextCache());
+		fresh.setPredictionMode(PredictionMode.LL);
+		parser.setInterpreter(fresh);
+
+		PARSERS.get().push(parser);
+	}
+
+	/**
+	 * Warms up the lexers and the parsers of the front-end, by lexing and
+	 * parsing a bundled corpus of representative Rust snippets. Only the first
+	 * call in a JVM parses the corpus: later ones return immediately.
+	 *
+	 * @return the time, in nanoseconds, taken by this call
+	 *
+	 * @throws IOException if the corpus cannot be read
+	 */
+	public static synchronized long warmUp() throws IOException {
+		long start = System.nanoTime();
+		if (warm)
+			return System.nanoTime() - start;
+
+		try (InputStream corpus = RustParsers.class.getResourceAsStream(CORPUS)) {
+			if (corpus == null)
+				throw new IOException("Missing warm-up corpus " + CORPUS);
+
+			CharStream input = CharStreams.fromStream(corpus, StandardCharsets.UTF_8);
+			ParsedFile.parse(CORPUS, input, new RustFrontendOptions(), new CompactTokenFactory(), start);
+		}
+
+		warm = true;
+		return System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,229 @@
+package it.unipr.frontend;
+
+import it.unipr.rust.antlr.RustLexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+/**
+ * Token types of the keywords and punctuation of the Rust grammar, used to
+ * dispatch on the children of a parse rule without calling
+ * {@link ParseTree#getText()} on them, that concatenates the text of all the
+ * tokens of a subtree.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public final class RustTokens {
+
+	/**
+	 * Token type of {@code ;}.
+	 */
+	public static final int SEMI = literal(";");
+
+	/**
+	 * Token type of {@code ,}.
+	 */
+	public static final int COMMA = literal(",");
+
+	/**
+	 * Token type of {@code =}.
+	 */
+	public static final int EQ = literal("=");
+
+	/**
+	 * Token type of {@code (}.
+	 */
+	public static final int LPAREN = literal("(");
+
+	/**
+	 * Token type of {@code )}.
+	 */
+	public static final int RPAREN = literal(")");
+
+	/**
+	 * Token type of {@code [}.
+	 */
+	public static final int LBRACKET = literal("[");
+
+	/**
+	 * Token type of {@code ]}.
+	 */
+	public static final int RBRACKET = literal("]");
+
+	/**
+	 * Token type of {@code &#123;}.
+	 */
+	public static final int LBRACE = literal("{");
+
+	/**
+	 * Token type of {@code &#125;}.
+	 */
+	public static final int RBRACE = literal("}");
+
+	/**
+	 * Token type of {@code .}.
+	 */
+	public static final int DOT = literal(".");
+
+	/**
+	 * Token type of {@code ..}.
+	 */
+	public static final int DOTDOT = literal("..");
+
+	/**
+	 * Token type of {@code ?}.
+	 */
+	public static final int QUESTION = literal("?");
+
+	/**
+	 * Token type of {@code -}.
+	 */
+	public static final int MINUS = literal("-");
+
+	/**
+	 * Token type of {@code !}.
+	 */
+	public static final int NOT = literal("!");
+
+	/**
+	 * Token type of {@code &}.
+	 */
+	public static final int AND = literal("&");
+
+	/**
+	 * Token type of {@code &&}.
+	 */
+	public static final int ANDAND = literal("&&");
+
+	/**
+	 * Token type of {@code *}.
+	 */
+	public static final int STAR = literal("*");
+
+	/**
+	 * Token type of {@code _}.
+	 */
+	public static final int UNDERSCORE = literal("_");
+
+	/**
+	 * Token type of {@code box}.
+	 */
+	public static final int BOX = literal("box");
+
+	/**
+	 * Token type of {@code else}.
+	 */
+	public static final int ELSE = literal("else");
+
+	/**
+	 * Token type of {@code false}.
+	 */
+	public static final int FALSE = literal("false");
+
+	/**
+	 * Token type of {@code fn}.
+	 */
+	public static final int FN = literal("fn");
+
+	/**
+	 * Token type of {@code for}.
+	 */
+	public static final int FOR = literal("for");
+
+	/**
+	 * Token type of {@code if}.
+	 */
+	public static final int IF = literal("if");
+
+	/**
+	 * Token type of {@code impl}.
+	 */
+	public static final int IMPL = literal("impl");
+
+	/**
+	 * Token type of {@code let}.
+	 */
+	public static final int LET = literal("let");
+
+	/**
+	 * Token type of {@code loop}.
+	 */
+	public static final int LOOP = literal("loop");
+
+	/**
+	 * Token type of {@code match}.
+	 */
+	public static final int MATCH = literal("match");
+
+	/**
+	 * Token type of {@code mut}.
+	 */
+	public static final int MUT = literal("mut");
+
+	/**
+	 * Token type of {@code return}.
+	 */
+	public static final int RETURN = literal("return");
+
+	/**
+	 * Token type of {@code self}.
+	 */
+	public static final int SELF = literal("self");
+
+	/**
+	 * Token type of {@code super}.
+	 */
+	public static final int SUPER = literal("super");
+
+	/**
+	 * Token type of {@code true}.
+	 */
+	public static final int TRUE = literal("true");
+
+	/**
+	 * Token type of {@code while}.
+	 */
+	public static final int WHILE = literal("while");
+
+	private RustTokens() {
+		// utility class
+	}
+
+	private static int literal(String literal) {
+		Vocabulary vocabulary = RustLexer.VOCABULARY;
+		String quoted = "'" + literal + "'";
+		for (int type = Token.MIN_USER_TOKEN_TYPE; type <= vocabulary.getMaxTokenType(); type++)
+			if (quoted.equals(vocabulary.getLiteralName(type)))
+				return type;
+
+		throw new IllegalStateException("The Rust grammar has no token " + quoted);
+	}
+
+	/**
+	 * Yields the type of the token of {@code node}, if it is a terminal node.
+	 *
+	 * @param node the node, possibly {@code null}
+	 *
+	 * @return the type of the token of {@code node}, or
+	 *             {@link Token#INVALID_TYPE} if {@code node} is not a terminal
+	 *             node
+	 */
+	public static int typeOf(ParseTree node) {
+		return node instanceof TerminalNode ? ((TerminalNode) node).getSymbol().getType() : Token.INVALID_TYPE;
+	}
+
+	/**
+	 * Checks whether {@code node} is a terminal node whose token has the given
+	 * type.
+	 *
+	 * @param node the node, possibly {@code null}
+	 * @param type the token type
+	 *
+	 * @return whether {@code node} is a token of type {@code type}
+	 */
+	public static boolean is(ParseTree node, int type) {
+		return typeOf(node) == type;
+	}
+}
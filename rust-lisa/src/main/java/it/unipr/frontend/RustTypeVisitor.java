@@ -1,6 +1,8 @@
 package it.unipr.frontend;
 
-import static it.unipr.frontend.RustFrontendUtilities.locationOf;
+import static it.unipr.frontend.RustFrontendUtilities.nameOf;
+import static it.unipr.frontend.RustTokens.is;
+import static it.unipr.frontend.RustTokens.typeOf;
 
 import it.unipr.cfg.type.RustBooleanType;
 import it.unipr.cfg.type.RustCharType;
@@ -66,17 +68,22 @@ import java.util.List;
 public class RustTypeVisitor extends RustBaseVisitor<Object> {
 
 	private final String filePath;
+	private final SourceLocations locations;
 	private final CompilationUnit unit;
+	private final SymbolTable symbols;
 
 	/**
 	 * Constructs a {@link RustTypeVisitor} instance.
 	 * 
-	 * @param filePath the filePath String of reference
-	 * @param unit     the compilation unit of reference
+	 * @param locations the locations of the file of reference
+	 * @param unit      the compilation unit of reference
+	 * @param symbols   the table of the names of the program
 	 */
-	public RustTypeVisitor(String filePath, CompilationUnit unit) {
-		this.filePath = filePath;
+	public RustTypeVisitor(SourceLocations locations, CompilationUnit unit, SymbolTable symbols) {
+		this.filePath = locations.getFilePath();
+		this.locations = locations;
 		this.unit = unit;
+		this.symbols = symbols;
 	}
 
 	@Override
@@ -88,10 +95,10 @@ public class RustTypeVisitor extends RustBaseVisitor<Object> {
 
 		boolean mutable = false;
 
-		switch (ctx.getChild(0).getText()) {
-		case "_":
+		int first = typeOf(ctx.getChild(0));
+		if (first == RustTokens.UNDERSCORE)
 			return Untyped.INSTANCE;
-		case "(":
+		else if (first == RustTokens.LPAREN) {
 			if (ctx.ty_sum() != null) {
 
 				Type type = visitTy_sum(ctx.ty_sum());
@@ -109,7 +116,7 @@ public class RustTypeVisitor extends RustBaseVisitor<Object> {
 
 			return RustUnitType.getInstance();
 
-		case "[":
+		} else if (first == RustTokens.LBRACKET) {
 			Type arrayType = visitTy_sum(ctx.ty_sum());
 
 			if (ctx.expr() != null) {
@@ -117,30 +124,35 @@ public class RustTypeVisitor extends RustBaseVisitor<Object> {
 				return RustArrayType.lookup(array);
 			}
 
-		case "&":
+			// TODO slices fall through to the reference case, as they did
+			// with the former switch
+			first = RustTokens.AND;
+		}
+
+		if (first == RustTokens.AND) {
 			// TODO Ignoring lifetimes for now
-			if (ctx.getChild(2) != null && ctx.getChild(2).getText().equals("mut"))
+			if (is(ctx.getChild(2), RustTokens.MUT))
 				mutable = true;
 
 			return new RustReferenceType(visitTy(ctx.ty()), mutable);
 
-		case "&&":
+		} else if (first == RustTokens.ANDAND) {
 			// TODO Ignoring lifetimes for now
-			if (ctx.getChild(2).getText().equals("mut"))
+			if (is(ctx.getChild(2), RustTokens.MUT))
 				mutable = true;
 
 			return new RustReferenceType(new RustReferenceType(visitTy(ctx.ty()), mutable), false);
 
-		case "*":
-			if (ctx.mut_or_const().getText().equals("mut"))
+		} else if (first == RustTokens.STAR) {
+			if (is(ctx.mut_or_const().getChild(0), RustTokens.MUT))
 				mutable = true;
 
 			RustPointerType pointer = new RustPointerType(visitTy(ctx.ty()), mutable);
 			return RustPointerType.lookup(pointer);
-
-		default: // TODO skipping the other productions
-			return null;
 		}
+
+		// TODO skipping the other productions
+		return null;
 	}
 
 	private boolean isInteger(String s) {
@@ -269,10 +281,10 @@ public class RustTypeVisitor extends RustBaseVisitor<Object> {
 	@Override
 	public Global visitField_decl(Field_declContext ctx) {
 		// TODO skipping attr* and visibility?
-		String name = ctx.ident().getText();
+		String name = nameOf(ctx.ident(), symbols);
 		Type type = visitTy_sum(ctx.ty_sum());
 
-		return new Global(RustFrontendUtilities.locationOf(ctx, filePath), name, type);
+		return new Global(locations.of(ctx), name, type);
 	}
 
 	@Override
@@ -301,7 +313,7 @@ public class RustTypeVisitor extends RustBaseVisitor<Object> {
 
 	@Override
 	public RustEnumVariant visitEnum_variant_main(Enum_variant_mainContext ctx) {
-		String name = ctx.ident().getText();
+		String name = nameOf(ctx.ident(), symbols);
 
 		if (ctx.expr() != null) {
 			// TODO This is a custom discriminant for a fieldless enumeration.
@@ -321,7 +333,7 @@ public class RustTypeVisitor extends RustBaseVisitor<Object> {
 			if (ctx.enum_field_decl_list() != null) {
 				List<Global> fieldList = visitEnum_field_decl_list(ctx.enum_field_decl_list());
 
-				CompilationUnit structUnit = new CompilationUnit(locationOf(ctx, filePath),
+				CompilationUnit structUnit = new CompilationUnit(locations.of(ctx),
 						unit.toString() + "::" + name, true);
 				RustStructType struct = RustStructType.lookup(name, structUnit);
 
@@ -351,10 +363,10 @@ public class RustTypeVisitor extends RustBaseVisitor<Object> {
 
 	@Override
 	public Global visitEnum_field_decl(Enum_field_declContext ctx) {
-		String name = ctx.ident().getText();
+		String name = nameOf(ctx.ident(), symbols);
 		Type type = visitTy_sum(ctx.ty_sum());
 
-		return new Global(RustFrontendUtilities.locationOf(ctx, filePath), name, type);
+		return new Global(locations.of(ctx), name, type);
 	}
 
 	@Override
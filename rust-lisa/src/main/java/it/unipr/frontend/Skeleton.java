@@ -0,0 +1,126 @@
+package it.unipr.frontend;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * The skeleton of a Rust file: its tokens, where the bodies of the functions
+ * declared at the top level and in {@code impl} blocks are left empty. Bodies
+ * are found by matching delimiters on the tokens, without parsing them, and
+ * each of them is kept aside, braces included, indexed by its opening brace,
+ * that is also the first token of the empty body of the skeleton. The closing
+ * brace is kept in the skeleton as well, so that the parse rules of the
+ * functions span the same tokens as in the whole file.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+final class Skeleton {
+
+	// marks the braces holding items on the stack of the open delimiters
+	private static final int ITEMS = Token.INVALID_TYPE;
+
+	private final List<Token> tokens;
+	private final Map<Token, List<Token>> bodies;
+
+	private Skeleton(List<Token> tokens, Map<Token, List<Token>> bodies) {
+		this.tokens = tokens;
+		this.bodies = bodies;
+	}
+
+	/**
+	 * Yields the skeleton of the file with the given tokens.
+	 *
+	 * @param tokens the tokens of the file, ending with {@link Token#EOF}
+	 *
+	 * @return the skeleton of the file
+	 */
+	static Skeleton of(List<Token> tokens) {
+		List<Token> skeleton = new ArrayList<>(tokens.size());
+		Map<Token, List<Token>> bodies = new HashMap<>();
+
+		// the types of the open delimiters
+		Deque<Integer> open = new ArrayDeque<>();
+		boolean impl = false;
+		boolean fn = false;
+
+		for (int i = 0; i < tokens.size(); i++) {
+			Token token = tokens.get(i);
+			int type = token.getType();
+			boolean items = open.isEmpty() || open.peek() == ITEMS;
+
+			if (items && type == RustTokens.LBRACE && fn) {
+				int close = closing(tokens, i);
+				if (close > i + 1) {
+					skeleton.add(token);
+					skeleton.add(tokens.get(close));
+					bodies.put(token, new ArrayList<>(tokens.subList(i, close + 1)));
+					i = close;
+					fn = impl = false;
+					continue;
+				}
+			}
+
+			skeleton.add(token);
+			if (items && type == RustTokens.IMPL)
+				impl = true;
+			else if (items && type == RustTokens.FN)
+				// skips function pointer types, as in fn(i32)
+				fn = i + 1 < tokens.size() && tokens.get(i + 1).getType() != RustTokens.LPAREN;
+			else if (items && type == RustTokens.SEMI)
+				fn = impl = false;
+			else if (type == RustTokens.LPAREN || type == RustTokens.LBRACKET)
+				open.push(type);
+			else if (type == RustTokens.LBRACE) {
+				open.push(items && impl ? ITEMS : type);
+				fn = impl = false;
+			} else if ((type == RustTokens.RPAREN || type == RustTokens.RBRACKET) && !open.isEmpty())
+				open.pop();
+			else if (type == RustTokens.RBRACE) {
+				if (!open.isEmpty())
+					open.pop();
+				fn = impl = false;
+			}
+		}
+
+		return new Skeleton(skeleton, bodies);
+	}
+
+	private static int closing(List<Token> tokens, int open) {
+		int depth = 0;
+		for (int i = open; i < tokens.size(); i++) {
+			int type = tokens.get(i).getType();
+			if (type == RustTokens.LBRACE)
+				depth++;
+			else if (type == RustTokens.RBRACE && --depth == 0)
+				return i;
+		}
+
+		// unbalanced braces: the body is left as it is
+		return -1;
+	}
+
+	/**
+	 * Yields the tokens of this skeleton, ending with {@link Token#EOF}.
+	 *
+	 * @return the tokens
+	 */
+	List<Token> getTokens() {
+		return tokens;
+	}
+
+	/**
+	 * Yields the bodies left out from this skeleton, indexed by their opening
+	 * brace.
+	 *
+	 * @return the bodies
+	 */
+	Map<Token, List<Token>> getBodies() {
+		return bodies;
+	}
+}
@@ -0,0 +1,135 @@
+package it.unipr.frontend;
+
+import it.unive.lisa.program.SourceCodeLocation;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Flyweight factory of the {@link SourceCodeLocation}s of a file. Locations
+ * are built only when requested, from the tokens of a parse rule, and each
+ * distinct position of the file yields a single location, shared by all the
+ * statements and expressions built there, that all refer to the same file
+ * path string. Positions are packed, line and column, into a {@code long}
+ * that is the key of an open-addressing table. Since a visitor usually asks
+ * several times for the location of the parse rule it is visiting, the last
+ * one is also kept at hand.<br>
+ * <br>
+ * Factories are not thread-safe: each thread visiting a file should use its
+ * own.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public final class SourceLocations {
+
+	private static final int INITIAL_CAPACITY = 256;
+
+	private final String filePath;
+
+	private long[] positions = new long[INITIAL_CAPACITY];
+	private SourceCodeLocation[] locations = new SourceCodeLocation[INITIAL_CAPACITY];
+	private int size;
+
+	// the tokens of the last parse rule, that do not retain its tree
+	private Token lastStart;
+	private Token lastStop;
+	private SourceCodeLocation lastLocation;
+
+	/**
+	 * Builds the factory of the locations of a file.
+	 *
+	 * @param filePath the path of the file
+	 */
+	public SourceLocations(String filePath) {
+		this.filePath = filePath;
+	}
+
+	/**
+	 * Yields the path of the file of this factory.
+	 *
+	 * @return the path of the file
+	 */
+	public String getFilePath() {
+		return filePath;
+	}
+
+	/**
+	 * Yields the location of a parse rule, as
+	 * {@link RustFrontendUtilities#locationOf(ParserRuleContext, String)}.
+	 *
+	 * @param ctx the parse rule
+	 *
+	 * @return the location of {@code ctx}
+	 */
+	public SourceCodeLocation of(ParserRuleContext ctx) {
+		if (ctx.getStart() != lastStart || ctx.getStop() != lastStop) {
+			lastLocation = of(RustFrontendUtilities.getLine(ctx), RustFrontendUtilities.getCol(ctx));
+			lastStart = ctx.getStart();
+			lastStop = ctx.getStop();
+		}
+
+		return lastLocation;
+	}
+
+	/**
+	 * Yields the location at the given position of the file.
+	 *
+	 * @param line the line
+	 * @param col  the column
+	 *
+	 * @return the location at {@code line} and {@code col}
+	 */
+	public SourceCodeLocation of(int line, int col) {
+		long position = pack(line, col);
+		int mask = positions.length - 1;
+		int slot = hash(position) & mask;
+		while (locations[slot] != null) {
+			if (positions[slot] == position)
+				return locations[slot];
+			slot = (slot + 1) & mask;
+		}
+
+		SourceCodeLocation location = new SourceCodeLocation(filePath, line, col);
+		positions[slot] = position;
+		locations[slot] = location;
+		// keeps the load factor at most 1/2
+		if (++size * 2 > positions.length)
+			grow();
+		return location;
+	}
+
+	/**
+	 * Yields the number of distinct locations built by this factory.
+	 *
+	 * @return the number of locations
+	 */
+	public int size() {
+		return size;
+	}
+
+	private static long pack(int line, int col) {
+		return ((long) line << 32) | (col & 0xFFFFFFFFL);
+	}
+
+	private static int hash(long position) {
+		long h = position * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private void grow() {
+		long[] oldPositions = positions;
+		SourceCodeLocation[] oldLocations = locations;
+		positions = new long[oldPositions.length * 2];
+		locations = new SourceCodeLocation[oldLocations.length * 2];
+
+		int mask = positions.length - 1;
+		for (int i = 0; i < oldLocations.length; i++)
+			if (oldLocations[i] != null) {
+				int slot = hash(oldPositions[i]) & mask;
+				while (locations[slot] != null)
+					slot = (slot + 1) & mask;
+				positions[slot] = oldPositions[i];
+				locations[slot] = oldLocations[i];
+			}
+	}
+}
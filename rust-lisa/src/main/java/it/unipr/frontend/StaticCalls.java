@@ -0,0 +1,223 @@
+package it.unipr.frontend;
+
+import it.unipr.cfg.type.composite.RustStructType;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.NaryExpression;
+import it.unive.lisa.program.cfg.statement.Return;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.call.CFGCall;
+import it.unive.lisa.program.cfg.statement.call.Call.CallType;
+import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
+import it.unive.lisa.util.datastructures.graph.AdjacencyMatrix;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A pass resolving the calls of a program whose target is known statically,
+ * to be run once the front-end has built the program, before the analysis.
+ * Rust dispatches inherent methods and free functions statically, and has no
+ * overloading: calls to free functions, to associated functions of a struct
+ * (e.g., {@code Number::zero()}) and to methods of receivers whose static
+ * type is a struct are resolved when a single function with their name and
+ * their number of parameters is found, and are replaced by {@link CFGCall}s
+ * to it. Other calls, e.g., to macros, to functions of other crates and to
+ * methods of receivers whose type is unknown, are left as
+ * {@link UnresolvedCall}s, resolved by the analysis.
+ * <p>
+ * Only the bodies already built are resolved: with
+ * {@link RustFrontendOptions#isLazyBodies()}, the pass should follow
+ * {@link LazyBodies#materializeAll()}.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public final class StaticCalls {
+
+	/**
+	 * The free functions of the program, indexed by name
+	 */
+	private final Map<String, List<CFG>> functions = new HashMap<>();
+
+	/**
+	 * The functions of the impl blocks of each unit, indexed by the name of
+	 * the unit and by their name
+	 */
+	private final Map<String, Map<String, List<CFG>>> methods = new HashMap<>();
+
+	private int resolved = 0;
+	private int unresolved = 0;
+
+	private StaticCalls(Program program) {
+		for (CFG cfg : program.getCFGs())
+			functions.computeIfAbsent(cfg.getDescriptor().getName(), k -> new ArrayList<>()).add(cfg);
+
+		for (CompilationUnit unit : program.getUnits())
+			for (CFG cfg : unit.getInstanceCFGs(false))
+				methods.computeIfAbsent(unit.getName(), k -> new HashMap<>())
+						.computeIfAbsent(cfg.getDescriptor().getName(), k -> new ArrayList<>()).add(cfg);
+	}
+
+	/**
+	 * Resolves the calls of a program whose target is known statically,
+	 * replacing them with calls to their target.
+	 *
+	 * @param program the program
+	 *
+	 * @return the pass, reporting the number of resolved and unresolved calls
+	 */
+	public static StaticCalls resolve(Program program) {
+		StaticCalls pass = new StaticCalls(program);
+		for (CFG cfg : program.getAllCFGs())
+			for (Statement node : new ArrayList<>(cfg.getNodes()))
+				pass.resolve(cfg, node);
+		return pass;
+	}
+
+	/**
+	 * Yields the number of calls that have been replaced with calls to their
+	 * target.
+	 *
+	 * @return the number of resolved calls
+	 */
+	public int getResolved() {
+		return resolved;
+	}
+
+	/**
+	 * Yields the number of calls that have been left to the analysis.
+	 *
+	 * @return the number of unresolved calls
+	 */
+	public int getUnresolved() {
+		return unresolved;
+	}
+
+	private void resolve(CFG cfg, Statement node) {
+		List<Replacement> replacements = new ArrayList<>();
+		if (node instanceof Expression)
+			collect(null, 0, (Expression) node, replacements);
+		else if (node instanceof Return)
+			// the expression of a return cannot be replaced
+			collect(null, -1, ((Return) node).getExpression(), replacements);
+
+		if (replacements.isEmpty())
+			return;
+
+		// statements are hashed by their sub-expressions: the node is taken
+		// out of the graph while they change
+		AdjacencyMatrix<Statement, Edge, CFG> adj = cfg.getAdjacencyMatrix();
+		List<Edge> edges = adj.getEdges().stream()
+				.filter(e -> e.getSource() == node || e.getDestination() == node)
+				.collect(Collectors.toList());
+		boolean entry = cfg.getEntrypoints().remove(node);
+		boolean exit = cfg.getAllExitpoints().remove(node);
+		edges.forEach(adj::removeEdge);
+		adj.removeNode(node);
+
+		// inner calls come first, so that they are among the parameters of
+		// the calls enclosing them when these are replaced
+		Statement replaced = node;
+		for (Replacement replacement : replacements) {
+			UnresolvedCall call = replacement.call;
+			CFGCall resolved = new CFGCall(call.getCFG(), call.getLocation(), RustFrontend.PARAMETER_ASSIGN_STRATEGY,
+					call.getCallType(), call.getQualifier(), call.getTargetName(), RustFrontend.EVALUATION_ORDER,
+					Collections.singleton(replacement.target), call.getParameters());
+
+			if (replacement.parent == null)
+				replaced = resolved;
+			else {
+				replacement.parent.getSubExpressions()[replacement.index] = resolved;
+				resolved.setParentStatement(replacement.parent);
+			}
+		}
+
+		cfg.addNode(replaced, entry);
+		if (exit)
+			cfg.getAllExitpoints().add(replaced);
+		for (Edge e : edges)
+			cfg.addEdge(redirect(e, e.getSource() == node ? replaced : e.getSource(),
+					e.getDestination() == node ? replaced : e.getDestination()));
+	}
+
+	private void collect(NaryExpression parent, int index, Expression expression, List<Replacement> replacements) {
+		if (expression instanceof NaryExpression) {
+			Expression[] subs = ((NaryExpression) expression).getSubExpressions();
+			for (int i = 0; i < subs.length; i++)
+				collect((NaryExpression) expression, i, subs[i], replacements);
+		}
+
+		if (!(expression instanceof UnresolvedCall))
+			return;
+
+		UnresolvedCall call = (UnresolvedCall) expression;
+		CFG target = index < 0 ? null : targetOf(call);
+		if (target == null) {
+			unresolved++;
+			return;
+		}
+
+		resolved++;
+		replacements.add(new Replacement(parent, index, call, target));
+	}
+
+	private CFG targetOf(UnresolvedCall call) {
+		Expression[] parameters = call.getParameters();
+		List<CFG> candidates;
+		if (call.getCallType() == CallType.STATIC && call.getQualifier().isEmpty())
+			candidates = functions.get(call.getTargetName());
+		else if (call.getCallType() == CallType.STATIC)
+			candidates = methods.getOrDefault(call.getQualifier(), Collections.emptyMap()).get(call.getTargetName());
+		else if (parameters.length > 0 && parameters[0].getStaticType() instanceof RustStructType)
+			candidates = methods
+					.getOrDefault(((RustStructType) parameters[0].getStaticType()).getUnit().getName(),
+							Collections.emptyMap())
+					.get(call.getTargetName());
+		else
+			return null;
+
+		if (candidates == null)
+			return null;
+
+		List<CFG> matching = candidates.stream()
+				.filter(cfg -> cfg.getDescriptor().getFormals().length == parameters.length)
+				.collect(Collectors.toList());
+		return matching.size() == 1 ? matching.get(0) : null;
+	}
+
+	private static Edge redirect(Edge edge, Statement source, Statement destination) {
+		if (edge instanceof TrueEdge)
+			return new TrueEdge(source, destination);
+		if (edge instanceof FalseEdge)
+			return new FalseEdge(source, destination);
+		return new SequentialEdge(source, destination);
+	}
+
+	/**
+	 * A call to replace with a call to its target: the expression it is a
+	 * sub-expression of, if any, and its position there.
+	 */
+	private static final class Replacement {
+		private final NaryExpression parent;
+		private final int index;
+		private final UnresolvedCall call;
+		private final CFG target;
+
+		private Replacement(NaryExpression parent, int index, UnresolvedCall call, CFG target) {
+			this.parent = parent;
+			this.index = index;
+			this.call = call;
+			this.target = target;
+		}
+	}
+}
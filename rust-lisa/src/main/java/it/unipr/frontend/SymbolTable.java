@@ -0,0 +1,46 @@
+package it.unipr.frontend;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The table of the names of a program, e.g., of its variables, fields and
+ * functions. The table yields exactly one canonical string for each distinct
+ * name, so that names are held once: it is the one that is handed to LiSA,
+ * whose name-indexed structures compare strings by reference before comparing
+ * their characters. A table is shared by all the files of a program, and by
+ * the lexers and visitors processing them, also concurrently.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+public class SymbolTable {
+
+	private final ConcurrentMap<String, String> names = new ConcurrentHashMap<>();
+
+	/**
+	 * Yields the canonical string of the given name, adding {@code name} to
+	 * this table if no equal name is in the table yet.
+	 *
+	 * @param name the name
+	 *
+	 * @return the canonical string equal to {@code name}
+	 */
+	public String name(String name) {
+		// most names are met many times: the lookup avoids locking on them
+		String canonical = names.get(name);
+		if (canonical != null)
+			return canonical;
+		canonical = names.putIfAbsent(name, name);
+		return canonical != null ? canonical : name;
+	}
+
+	/**
+	 * Yields the number of distinct names of this table.
+	 *
+	 * @return the number of names
+	 */
+	public int size() {
+		return names.size();
+	}
+}
@@ -0,0 +1,67 @@
+package it.unipr.frontend;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Splitter of the tokens of a Rust file into slices made of whole top-level
+ * items, that can be parsed independently. The ends of the items are found
+ * by matching delimiters, without parsing: an item ends with a semicolon or
+ * with a closing brace that is not followed by a semicolon, outside of any
+ * delimiter. This might be wrong for items that are not ended this way, in
+ * which case parsing some of the slices fails.
+ *
+ * @author <a href="mailto:vincenzo.arceri@unipr.it">Vincenzo Arceri</a>
+ * @author <a href="mailto:simone.gazza@studenti.unipr.it">Simone Gazza</a>
+ */
+final class TopLevelItems {
+
+	private TopLevelItems() {
+		// utility class
+	}
+
+	/**
+	 * Splits the tokens of a file into at most {@code count} slices of whole
+	 * items, of about the same number of tokens.
+	 *
+	 * @param tokens the tokens of the file, ending with {@link Token#EOF}
+	 * @param count  the maximum number of slices
+	 *
+	 * @return the slices, in order and without {@link Token#EOF}, or a single
+	 *             slice if the delimiters of the file are not balanced
+	 */
+	static List<List<Token>> slices(List<Token> tokens, int count) {
+		int end = tokens.size() - 1;
+		int size = Math.max(1, end / Math.max(1, count));
+
+		List<List<Token>> slices = new ArrayList<>(count);
+		int from = 0;
+		int depth = 0;
+		for (int i = 0; i < end; i++) {
+			int type = tokens.get(i).getType();
+			boolean last = false;
+			if (type == RustTokens.LPAREN || type == RustTokens.LBRACKET || type == RustTokens.LBRACE)
+				depth++;
+			else if (type == RustTokens.RPAREN || type == RustTokens.RBRACKET || type == RustTokens.RBRACE) {
+				if (--depth < 0)
+					break;
+				last = depth == 0 && type == RustTokens.RBRACE && tokens.get(i + 1).getType() != RustTokens.SEMI;
+			} else
+				last = depth == 0 && type == RustTokens.SEMI;
+
+			if (last && i + 1 - from >= size) {
+				slices.add(tokens.subList(from, i + 1));
+				from = i + 1;
+			}
+		}
+
+		if (depth != 0)
+			return Collections.singletonList(tokens.subList(0, end));
+
+		if (from < end)
+			slices.add(tokens.subList(from, end));
+		return slices;
+	}
+}
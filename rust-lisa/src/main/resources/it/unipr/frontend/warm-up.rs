@@ -0,0 +1,683 @@
+// Representative Rust snippets, parsed to warm up the parsers of the
+// front-end (see RustParsers#warmUp()).
+
+// blocky-match
+enum Color {
+    Red,
+    Blue,
+    Green,
+    RGB(u32, u32, u32),
+}
+
+fn main() {
+    let mut color = Color::RGB(122, 17, 40);
+
+    match color {
+        Color::Red => {
+        	println!("The color is Red!");
+        },
+        Color::Blue => {
+        	println!("The color is Blue!");
+        },
+        Color::Green => {
+        	println!("The color is Green!");
+        },
+        Color::RGB(r, g, b) => {
+            println!("Chosen all the colors!");
+        	println!("All the colors!");
+        },
+    }
+}
+
+// empty-function
+fn main() {
+}
+
+// empty-method
+struct Empty {
+}
+
+impl Empty {
+	pub fn empty() {
+	}
+	
+	pub fn new() -> Empty {
+	    Empty{}
+	}
+	
+	pub fn empty_self(&self) {
+	}
+}
+
+fn main() {
+	Empty::empty();
+	
+	let e = Empty::new();
+	e.empty_self();
+}
+
+// empty-statement
+fn main() {
+    ;
+}
+
+
+// enum
+enum Message {
+    Quit,
+    Move { x: i32, y: i32 },
+    Write(&str),
+    ChangeColor(i32, i32, i32),
+}
+
+fn main() {
+    let m = Message::Write("Hello world!");
+    let x = Message::Quit;
+    let y = Message::Move { x : 4, y : 2};
+    let z = Message::ChangeColor(1, 2, 3);
+}
+
+// euclidian-gcd
+fn main() {
+    let mut a = 10;
+    let mut b = 42;
+
+    while b == 0 {
+        let t = b;
+        b = a % b;
+        a = t;
+    }
+
+    let _result = a;
+}
+
+// expr-match
+enum Color {
+    Red,
+    Blue,
+    Green,
+    RGB(u32, u32, u32),
+}
+
+fn main() {
+    let color = Color::RGB(122, 17, 40);
+
+    match color {
+        Color::Red => println!("The color is Red!"),
+        Color::Blue => println!("The color is Blue!"),
+        Color::Green => println!("The color is Green!"),
+        Color::RGB(r, g, b) => println!("All the colors!"),
+    }
+}
+
+// expression-guard
+fn main() {
+    let mut _x = 42;
+    let y = 2;
+    let z = false;
+    let w = &42;
+
+    if _x > y { _x = 1; }
+    if _x < y { _x = 1; }
+    if _x == y { _x = 1; }
+    if _x >= y { _x = 1; }
+    if _x <= y { _x = 1; }
+    if z && z { _x = 1; }
+    if z || z { _x = 1; }
+    if !z { _x = 1; }
+    if &_x == w { _x = 1; }
+    if &&_x == &&0 { _x = 1; }
+    if *w == 0 { _x = 1; }
+    if _x as i32 == 0{ _x = 1; }
+    if _x ^ y == 0 { _x = 1; }
+    if _x | y == 0 { _x = 1; }
+    if _x & y == 0 { _x = 1; }
+    if _x >> y == 0 { _x = 1; }
+    if _x << y == 0 { _x = 1; }
+    if _x + y == 0 { _x = 1; }
+    if _x - y == 0 { _x = 1; }
+    if _x * y == 0 { _x = 1; }
+    if _x / y == 0 { _x = 1; }
+    if _x % y == 0 { _x = 1; }
+ }
+
+// for
+fn main() {
+    let mut _x = 52;
+
+    for _i in 0..10 {
+        _x -=1;
+    }
+}
+
+
+// if-else
+fn main() {
+    let mut _x = 4;
+
+    if _x == 5 {
+        _x = 1;
+    } else {
+        _x = 4;
+    }
+}
+
+
+// if-elseif-else
+fn main() {
+    let mut _x = 3;
+
+    if _x == 5 {
+        _x = 1;
+    } else if _x == 1 {
+        _x = 2;
+    } else {
+        _x = 3;
+    }
+}
+
+
+// if-elseif
+fn main() {
+    let mut _x = 4;
+
+    if _x == 5 {
+        _x = 1;
+    } else if _x == 1 {
+        _x = 2;
+    }
+}
+
+
+// implicit-return
+fn main() {
+    ;
+}
+
+fn func1() -> i32 {
+    3
+}
+
+fn func2() -> i32 {
+    let x = 3;
+
+    if x == 3 {
+        3
+    } else {
+        0
+    }
+}
+
+fn func3() -> i32 {
+    let mut x = 3;
+
+    while x < 5 {
+        x +=1;
+    }
+
+    6
+}
+
+fn func4() -> i32 {
+	let mut x = 3;
+
+    if x == 3 {
+    	loop {
+       		x += 1;
+    	}
+    	x
+    } else {
+        0
+    }
+}
+
+
+// loop
+fn main() {
+    loop {
+        let _x = 2;
+    };
+}
+
+
+// macro
+fn main() {
+    todo!();
+
+	let x = 2;
+    println!("{}", x);
+    
+    let _y = vec![1, 2, 3, 4];
+    
+    env!("PATH");
+    
+    assert_eq!(x+2, 4);
+    
+    panic!("Something went wrong");
+        
+}
+
+// match-if
+enum Color {
+    RGB(u32, u32, u32),
+}
+
+fn main() {
+    let color = Color::RGB(122, 17, 40);
+
+    match color {
+        Color::RGB(r, g, b) if r < 122 => println!("Red greater than 122!"),
+        Color::RGB(r, g, b) => println!("No constraint on red!"),
+    }
+}
+
+// match-or
+fn main() {
+    let x = 2;
+
+    match x {
+        2 | 3 | 4  if y < 5 => println!("x is 2 or 3 or 4"),
+        _ => println!("x is not 2 nor 3 nor 4!"),
+    }
+}
+
+// mix-and-match
+enum Color {
+    Red,
+    Blue,
+    Green,
+    RGB(u32, u32, u32),
+}
+
+fn main() {
+    let mut color = Color::RGB(122, 17, 40);
+
+    match color {
+        Color::Red => println!("The color is Red!"),
+        Color::Blue => {
+        	println!("The color is Blue!");
+        },
+        Color::Green => println!("The color is Green!"),
+        Color::RGB(r, g, b) => {
+            println!("Chosen all the colors!");
+        	println!("All the colors!");
+        },
+    }
+}
+
+// more-than-one-if
+fn main() {
+    let mut _x = 3;
+
+    if _x == 1 {
+        _x = 1;
+    }
+
+    if _x == 2 {
+        _x = 2;
+    }
+
+    if _x == 3 {
+        _x = 3;
+    } else {
+        _x = 4;
+    }
+
+    if _x == 5 {
+        _x = 5;
+    } else if _x == 6 {
+        _x = 6;
+    } else {
+        _x = 7;
+    }
+
+    if _x == 8 {
+        _x = 9;
+    } else {
+        _x = 10;
+    }
+}
+
+
+// multiple-if
+fn main() {
+    let mut _x = 3;
+
+    if _x == 5 {
+        _x = 1;
+    } else if _x != 1 {
+        _x = 2;
+    } else if _x >= 2 {
+        _x = 3;
+    } else if _x > 3 {
+        _x = 4;
+    } else if _x < 4 {
+        _x = 5;
+    } else if _x <= 5 {
+        _x = 6;
+    } else {
+        _x = 7;
+    }
+}
+
+
+// mutable-variable-declaration
+fn main() {
+    let mut _x = 42;
+}
+
+// nested-loops
+fn main() {
+    let mut a = 0;
+    let b = 7;
+
+    loop {
+        for _i in 0..b {
+            let mut c = a;
+
+            while c < b {
+                c += 1;
+            }
+
+            a += 1;
+        }
+    }
+}
+
+
+// rectangle
+struct Rect {
+    width : usize,
+    height : usize,
+}
+
+impl Rect {
+    pub fn area(&self) -> usize {
+        self.width * self.height
+    }
+
+    pub fn perim(&self) -> usize {
+        2*self.width + 2*self.height
+    }
+
+    pub fn new(width : usize, height : usize) -> Rect {
+        Rect {
+            width,
+            height,
+        }
+    }
+}
+
+fn main() {
+    let r = Rect::new(10, 5);
+    let _a = r.area();
+    let _b = r.perim();
+}
+
+// return-void
+fn main() {
+	;
+}
+
+fn func0() {
+	let _x = 2;
+}
+
+fn func1() {
+	let _x = 6;
+	return;
+}
+
+fn func2() {
+	let _x = 4;
+
+	if _x == 4 {
+		let _y = _x + 2;
+	} else {
+		let _y = _x + 3;
+	}
+}
+
+fn func3() {
+	let _x = 4;
+
+	if _x == 4 {
+		let _y = _x + 2;
+		let _z = 6;
+		return;
+	}
+
+	let _y = 6;
+	return;
+}
+
+fn func4() {
+	let _x = 4;
+
+	if _x == 4 {
+		let _y = _x + 2;
+		let _z = 6;
+		return;
+	}
+	return;
+}
+
+fn func5() {
+	let _x = 4;
+
+	loop {
+		let _x = 6;
+	}
+	return;
+}
+
+fn func6() {
+	let _x = 4;
+
+	loop {
+		let _x = 6;
+		return;
+	}
+	return;
+}
+
+fn func7() {
+    let _x = 1;
+    if _x == 2 {
+        if _x < 3 {
+            return;
+        }
+    }
+}
+
+fn func8() {
+	let _x = 4;
+
+	if _x == 4 {
+		let _y = _x + 2;
+	} else {
+		let _y = _x + 3;
+	}
+	
+	return;
+}
+
+// return
+fn main() {
+	;
+}
+
+fn func1() -> i32 {
+	return 3;
+}
+
+fn func2() -> i32 {
+	let x = 2;
+	if x == 2 {
+		return x;
+	}
+	
+	return 5;
+}
+
+fn func3() -> i32 {
+	let x = 2;
+	if x == 2 {
+		if x == 3 {
+			return x;
+		} else {
+			return x + 1;
+		}
+	}
+	
+	return 5;
+}
+
+fn func4() -> i32 {
+	let mut x = 1;
+	
+	loop {
+		x += 1;
+	}
+	
+	return x;
+}
+
+fn func5() -> i32 {
+	let mut x = 5;
+	
+	loop {
+		if x == 4 {
+			x += 1;
+		}
+	}
+	
+	return x;
+}
+
+fn func6() -> i32 {
+	let x = 2;
+	if x == 2 {
+		return 1;
+	} else if x == 3 {
+		return 2;
+	}
+	
+	return 4;
+}
+
+// simple-if-let
+enum Message {
+    Quit,
+    Move { x: i32, y: i32 },
+    ChangeColor(i32, i32, i32),
+}
+
+fn main() {
+    let m0 = Message::Quit;
+    if let Message::Quit = m0 {
+        println!("Quit message");
+    }
+    
+    let m1 = Message::ChangeColor(0, 0, 0);
+    if let Message::ChangeColor(a, b, c) = m1 {
+        println!("{}", a);
+        println!("{}", b);
+        println!("{}", c);
+    }
+    
+    let m2 = Message::Move {x : 1, y : 2};
+    if let Message::Move{x: a, y: b} = m2 {
+        println!("{}", a);
+        println!("{}", b);
+    }
+}
+
+// simple-if
+fn main() {
+    let mut _x = 0;
+    if _x == 5 {
+        _x = 1;
+    }
+}
+
+
+// simple-operation-variable-declaration
+fn main() {
+    let a = -42;
+    let _b = !true;
+    let _c = &42;
+    let _d = &&42;
+    let _x = a;
+    let y = &a;
+    let _z = *y;
+    let _q = a + a;
+}
+
+
+// struct-parsing
+struct Number {
+    num: isize,
+}
+
+impl Number {
+	pub fn zero() {
+        let _x = 2;
+    }
+}
+
+fn main() {
+	let _x = 2;
+	let num = 3;
+    let _y = Number::zero();
+
+	let a = Number {
+		num,
+	};
+
+    let _b = a.num;
+}
+
+// type-parsing
+struct Test {
+	field1 : i32,
+}
+
+fn main() {
+	let _x : i32 = 4;
+
+	let _y1 : _ = 7;
+	let _y2 = 7;
+
+	let _z : [i32; 4] = [1, 2, 3, 4];
+
+	let mut _a : (i32, char, f64) = (42, 'A', 3.3);
+
+	let _ptr_mut : *mut i32 = &mut 42;
+	let _ptr_const : *const i32 = &42;
+
+	let _s = Test {
+		field1 : 42,
+	};
+
+    let _b = _s.field1;
+}
+
+// variable-declaration
+fn main() {
+    let _x = 42; // i32
+    let _y : _ = 42; // i32
+    let _z : i32 = 42; // i32
+}
+
+
+// while
+fn main() {
+    let mut x = 2;
+    let y = 6;
+
+    while x < y {
+        x += 1;
+    }
+}
+
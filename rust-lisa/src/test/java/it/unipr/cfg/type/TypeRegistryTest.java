@@ -0,0 +1,260 @@
+package it.unipr.cfg.type;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unipr.cfg.type.composite.RustArrayType;
+import it.unipr.cfg.type.composite.RustStructType;
+import it.unipr.cfg.type.composite.RustTupleType;
+import it.unipr.cfg.type.numeric.signed.RustI32Type;
+import it.unipr.cfg.type.numeric.signed.RustI64Type;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.Untyped;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class TypeRegistryTest {
+
+	private static CompilationUnit unit(String name) {
+		return new CompilationUnit(new SourceCodeLocation("registry-test", 0, 0), name, true);
+	}
+
+	@Test
+	public void testRegistriesAreIsolated() {
+		TypeRegistry first = new TypeRegistry();
+		TypeRegistry second = new TypeRegistry();
+
+		TypeRegistry previous = TypeRegistry.bind(first);
+		RustStructType inFirst;
+		try {
+			inFirst = RustStructType.lookup("Point", unit("Point"));
+			assertTrue(RustStructType.has("Point"));
+		} finally {
+			TypeRegistry.bind(previous);
+		}
+
+		TypeRegistry.bind(second);
+		try {
+			assertFalse(RustStructType.has("Point"));
+			RustStructType inSecond = RustStructType.lookup("Point", unit("Point"));
+			assertNotSame(inFirst, inSecond);
+		} finally {
+			TypeRegistry.bind(previous);
+		}
+
+		assertEquals(1, first.structs().size());
+		assertEquals(1, second.structs().size());
+		assertEquals(first.structs(), inFirst.allInstances());
+	}
+
+	@Test
+	public void testDefaultFacade() {
+		TypeRegistry.getDefault().clear();
+		RustArrayType array = RustArrayType.lookup(new RustArrayType(RustI32Type.getInstance(), 3));
+
+		assertSame(array, RustArrayType.lookup(new RustArrayType(RustI32Type.getInstance(), 3)));
+		assertTrue(RustArrayType.all().contains(array));
+		assertTrue(TypeRegistry.getDefault().arrays().contains(array));
+
+		RustArrayType.clearAll();
+		assertTrue(RustArrayType.all().isEmpty());
+	}
+
+	@Test
+	public void testInterningCounters() {
+		TypeRegistry registry = new TypeRegistry();
+		TypeRegistry previous = TypeRegistry.bind(registry);
+		try {
+			RustPointerType constPtr = RustPointerType.lookup(new RustPointerType(RustI32Type.getInstance(), false));
+			RustPointerType mutPtr = RustPointerType.lookup(new RustPointerType(RustI32Type.getInstance(), true));
+			RustTupleType tuple = RustTupleType.lookup(new RustTupleType(Arrays.asList(constPtr, mutPtr)));
+
+			assertNotSame(constPtr, mutPtr);
+			assertNotEquals(constPtr, mutPtr);
+			assertNotEquals(constPtr.hashCode(), mutPtr.hashCode());
+			assertSame(constPtr, RustPointerType.lookup(new RustPointerType(RustI32Type.getInstance(), false)));
+			assertSame(tuple, RustTupleType.lookup(new RustTupleType(Arrays.asList(constPtr, mutPtr))));
+		} finally {
+			TypeRegistry.bind(previous);
+		}
+
+		assertEquals(3, registry.getInternMisses());
+		assertEquals(2, registry.getInternHits());
+		assertEquals(2, registry.pointers().size());
+		assertEquals(1, registry.tuples().size());
+	}
+
+	@Test
+	public void testLattice() {
+		TypeRegistry registry = new TypeRegistry();
+		TypeRegistry previous = TypeRegistry.bind(registry);
+		try {
+			RustI32Type i32 = RustI32Type.getInstance();
+			assertTrue(i32.canBeAssignedTo(i32));
+			assertTrue(i32.canBeAssignedTo(Untyped.INSTANCE));
+			assertFalse(i32.canBeAssignedTo(RustI64Type.getInstance()));
+			assertSame(Untyped.INSTANCE, i32.commonSupertype(RustI64Type.getInstance()));
+
+			int before = registry.getLattice().size();
+			RustPointerType ptr = RustPointerType.lookup(new RustPointerType(i32, false));
+			RustArrayType array = RustArrayType.lookup(new RustArrayType(i32, 3));
+			assertTrue(ptr.getTypeId() != RustTypeLattice.UNREGISTERED);
+			assertNotEquals(ptr.getTypeId(), array.getTypeId());
+			// types are listed in the order they have been interned
+			assertEquals(Arrays.asList(ptr, array),
+					registry.getLattice().registered(before, registry.getLattice().size()));
+			assertTrue(registry.getLattice().registered(before + 2, before + 2).isEmpty());
+
+			// the second query of each relation is answered by the lattice
+			for (int i = 0; i < 2; i++) {
+				assertTrue(ptr.canBeAssignedTo(ptr));
+				assertFalse(ptr.canBeAssignedTo(array));
+				assertSame(ptr, ptr.commonSupertype(ptr));
+				assertSame(Untyped.INSTANCE, array.commonSupertype(ptr));
+			}
+
+			// probes are not part of the lattice, but agree with it
+			RustPointerType probe = new RustPointerType(i32, false);
+			assertEquals(RustTypeLattice.UNREGISTERED, probe.getTypeId());
+			assertTrue(ptr.canBeAssignedTo(probe));
+			assertTrue(probe.canBeAssignedTo(ptr));
+		} finally {
+			TypeRegistry.bind(previous);
+		}
+
+		assertEquals(21, registry.getLattice().size());
+	}
+
+	@Test
+	public void testSnapshots() {
+		TypeRegistry registry = new TypeRegistry();
+		TypeRegistry previous = TypeRegistry.bind(registry);
+		try {
+			RustPointerType ptr = RustPointerType.lookup(new RustPointerType(RustI32Type.getInstance(), false));
+			Collection<Type> pointers = RustPointerType.all();
+			assertSame(pointers, ptr.allInstances());
+
+			// interning an existing type does not invalidate the snapshot
+			RustPointerType.lookup(new RustPointerType(RustI32Type.getInstance(), false));
+			assertSame(pointers, registry.pointers());
+
+			RustPointerType.lookup(new RustPointerType(RustI32Type.getInstance(), true));
+			assertNotSame(pointers, registry.pointers());
+			assertEquals(1, pointers.size());
+			assertEquals(2, registry.pointers().size());
+
+			RustStructType.lookup("Point", unit("Point"));
+			Collection<Type> structs = registry.structs();
+			assertSame(structs, RustStructType.all());
+			long generation = registry.getGeneration();
+			registry.clearStructs();
+			assertTrue(registry.structs().isEmpty());
+			// composite types containing the removed structs are not canonical
+			// anymore
+			assertEquals(generation + 1, registry.getGeneration());
+			registry.clearEnums();
+			assertEquals(generation + 2, registry.getGeneration());
+		} finally {
+			TypeRegistry.bind(previous);
+		}
+	}
+
+	private static List<RustType> internAll(int size) {
+		List<RustType> types = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			RustPointerType ptr = RustPointerType.lookup(new RustPointerType(RustI32Type.getInstance(), i % 2 == 0));
+			RustArrayType array = RustArrayType.lookup(new RustArrayType(ptr, i));
+			types.add(ptr);
+			types.add(array);
+			types.add(RustTupleType.lookup(new RustTupleType(Arrays.asList(ptr, array))));
+		}
+		return types;
+	}
+
+	@Test
+	public void testConcurrentInterning() throws Exception {
+		int threads = 8;
+		int size = 200;
+		TypeRegistry registry = new TypeRegistry();
+		CyclicBarrier start = new CyclicBarrier(threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<List<RustType>>> results = new ArrayList<>();
+		try {
+			for (int t = 0; t < threads; t++)
+				results.add(executor.submit(() -> {
+					TypeRegistry previous = TypeRegistry.bind(registry);
+					try {
+						start.await();
+						return internAll(size);
+					} finally {
+						TypeRegistry.bind(previous);
+					}
+				}));
+
+			List<RustType> first = results.get(0).get();
+			for (Future<List<RustType>> result : results) {
+				List<RustType> types = result.get();
+				for (int i = 0; i < first.size(); i++)
+					assertSame(first.get(i), types.get(i));
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// no type has been built, and given an identifier, more than once
+		TypeRegistry sequential = new TypeRegistry();
+		TypeRegistry previous = TypeRegistry.bind(sequential);
+		try {
+			internAll(size);
+		} finally {
+			TypeRegistry.bind(previous);
+		}
+
+		assertEquals(sequential.getInternMisses(), registry.getInternMisses());
+		assertEquals(sequential.getLattice().size(), registry.getLattice().size());
+		assertEquals(2, registry.pointers().size());
+		assertEquals(size, registry.arrays().size());
+		assertEquals(size, registry.tuples().size());
+	}
+
+	@Test
+	public void testConcurrentClears() throws Exception {
+		int threads = 8;
+		int clears = 500;
+		TypeRegistry registry = new TypeRegistry();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> results = new ArrayList<>();
+		try {
+			for (int t = 0; t < threads; t++)
+				results.add(executor.submit(() -> {
+					for (int i = 0; i < clears; i++)
+						registry.clearTuples();
+				}));
+			for (Future<?> result : results)
+				result.get();
+		} finally {
+			executor.shutdown();
+		}
+
+		// no removal is lost
+		assertEquals(threads * clears, registry.getGeneration());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSnapshotsAreImmutable() {
+		new TypeRegistry().tuples().add(Untyped.INSTANCE);
+	}
+}
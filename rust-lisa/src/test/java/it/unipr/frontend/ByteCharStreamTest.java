@@ -0,0 +1,53 @@
+package it.unipr.frontend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.Test;
+
+public class ByteCharStreamTest {
+
+	private static Path file(String content) throws IOException {
+		Path file = Files.createTempFile("rust-lisa-stream", ".rs");
+		file.toFile().deleteOnExit();
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	@Test
+	public void testAscii() throws IOException {
+		Path file = file("fn main() {}");
+		CharStream stream = ByteCharStream.fromFile(file.toString());
+
+		assertTrue(stream instanceof ByteCharStream);
+		assertEquals(12, stream.size());
+		assertEquals(file.toString(), stream.getSourceName());
+		assertEquals('f', stream.LA(1));
+		stream.consume();
+		assertEquals('n', stream.LA(1));
+		assertEquals('f', stream.LA(-1));
+		assertEquals("main", stream.getText(Interval.of(3, 6)));
+
+		stream.seek(stream.size());
+		assertEquals(IntStream.EOF, stream.LA(1));
+	}
+
+	@Test
+	public void testUtf8() throws IOException {
+		Path file = file("let s = \"caffè\";");
+		CharStream stream = ByteCharStream.fromFile(file.toString());
+
+		assertFalse(stream instanceof ByteCharStream);
+		assertEquals(16, stream.size());
+		assertEquals(file.toString(), stream.getSourceName());
+		assertEquals("\"caffè\"", stream.getText(Interval.of(8, 14)));
+	}
+}
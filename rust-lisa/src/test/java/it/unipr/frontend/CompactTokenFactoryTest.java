@@ -0,0 +1,78 @@
+package it.unipr.frontend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unipr.rust.antlr.RustLexer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.junit.Test;
+
+public class CompactTokenFactoryTest {
+
+	@Test
+	public void testTokens() {
+		CompactTokenFactory factory = new CompactTokenFactory();
+		RustLexer lexer = new RustLexer(CharStreams.fromString("let x = 42;\nlet y = x;"));
+		lexer.setTokenFactory(factory);
+		CommonTokenStream stream = new CommonTokenStream(lexer);
+		stream.fill();
+
+		List<Token> tokens = stream.getTokens();
+		for (Token token : tokens)
+			assertTrue(token instanceof CompactToken);
+		// no text is built while lexing
+		assertEquals(0, factory.getIdentifiers());
+
+		// let x = 42 ; let y = x ; <EOF>
+		assertEquals(11, tokens.size());
+		assertEquals("let", tokens.get(0).getText());
+		assertEquals("42", tokens.get(3).getText());
+		assertEquals(2, tokens.get(6).getLine());
+		assertEquals(4, tokens.get(6).getCharPositionInLine());
+		assertEquals(8, tokens.get(3).getStartIndex());
+		assertEquals(9, tokens.get(3).getStopIndex());
+
+		// the two occurrences of x share the same string
+		assertSame(tokens.get(1).getText(), tokens.get(8).getText());
+		assertEquals(1, factory.getIdentifiers());
+		assertEquals("y", tokens.get(6).getText());
+		assertEquals(2, factory.getIdentifiers());
+		assertEquals(Token.EOF, tokens.get(10).getType());
+	}
+
+	/**
+	 * Estimates the shallow size of the instances of a class, with compressed
+	 * references: a 12-byte header and the fields, rounded up to 8 bytes.
+	 */
+	private static long shallowSize(Class<?> type) {
+		long size = 12;
+		for (Class<?> c = type; c != null; c = c.getSuperclass())
+			for (Field field : c.getDeclaredFields())
+				if (!Modifier.isStatic(field.getModifiers())) {
+					Class<?> t = field.getType();
+					if (t == long.class || t == double.class)
+						size += 8;
+					else if (t == short.class || t == char.class)
+						size += 2;
+					else if (t == byte.class || t == boolean.class)
+						size += 1;
+					else
+						size += 4;
+				}
+		return (size + 7) & ~7;
+	}
+
+	@Test
+	public void testFootprint() {
+		// CommonToken takes 48 bytes
+		assertTrue(shallowSize(CompactToken.class) + " bytes against " + shallowSize(CommonToken.class),
+				shallowSize(CompactToken.class) < shallowSize(CommonToken.class));
+	}
+}
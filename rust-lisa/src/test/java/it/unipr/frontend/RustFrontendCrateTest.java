@@ -0,0 +1,511 @@
+package it.unipr.frontend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unipr.cfg.expression.comparison.RustEqualExpression;
+import it.unipr.cfg.expression.comparison.RustLessExpression;
+import it.unipr.cfg.statement.RustLetAssignment;
+import it.unipr.cfg.type.RustPointerType;
+import it.unipr.cfg.type.composite.RustArrayType;
+import it.unipr.cfg.type.composite.RustStructType;
+import it.unipr.cfg.type.composite.RustTupleType;
+import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.Parameter;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.NaryExpression;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.call.CFGCall;
+import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
+import it.unive.lisa.type.Type;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+public class RustFrontendCrateTest {
+
+	private static Path write(Path dir, String name, String source) throws IOException {
+		Path file = dir.resolve(name);
+		Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+		file.toFile().deleteOnExit();
+		return file;
+	}
+
+	private static List<String> units(Program program) {
+		return program.getUnits().stream().map(CompilationUnit::getName).sorted().collect(Collectors.toList());
+	}
+
+	private static List<String> cfgs(Program program) {
+		return program.getCFGs().stream().map(CFG::toString).sorted().collect(Collectors.toList());
+	}
+
+	private static List<String> registered(Program program) {
+		return program.getRegisteredTypes().stream().map(Type::toString).distinct().sorted()
+				.collect(Collectors.toList());
+	}
+
+	private static Map<String, List<String>> bodies(Program program) {
+		Map<String, List<String>> bodies = new TreeMap<>();
+		for (CFG cfg : program.getAllCFGs())
+			bodies.put(cfg.toString(),
+					cfg.getNodes().stream().map(n -> n.toString() + " " + n.getLocation()).sorted()
+							.collect(Collectors.toList()));
+		return bodies;
+	}
+
+	@Test
+	public void testMultipleFiles() throws IOException {
+		Path dir = Files.createTempDirectory("rust-lisa-crate");
+		dir.toFile().deleteOnExit();
+		// the impl block refers to a struct declared in another file
+		Path main = write(dir, "a_main.rs", "impl Number {\n    pub fn zero() {\n        let _x = 0;\n    }\n}\n\n"
+				+ "fn main() {\n    let _y = 2;\n}\n");
+		Path number = write(dir, "b_number.rs", "struct Number {\n    num: isize,\n}\n\n"
+				+ "fn helper() {\n    let _z = 3;\n}\n");
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			RustCrate first = RustFrontend.processFiles(Arrays.asList(main, number), executor);
+			RustCrate second = RustFrontend.processFiles(Arrays.asList(number, main), executor);
+
+			assertEquals(Arrays.asList(main.toString(), number.toString()),
+					Arrays.asList(first.getParseTimes().keySet().toArray()));
+			assertTrue(first.getTotalParseTime() > 0);
+
+			// two main units plus the struct unit
+			assertEquals(3, first.getProgram().getUnits().size());
+			assertEquals(units(first.getProgram()), units(second.getProgram()));
+			assertEquals(cfgs(first.getProgram()), cfgs(second.getProgram()));
+		} finally {
+			executor.shutdown();
+		}
+
+		RustCrate crate = RustFrontend.processCrate(dir);
+		assertEquals(2, crate.getParseTimes().size());
+	}
+
+	@Test
+	public void testTwoStageParsing() throws IOException {
+		Path dir = Files.createTempDirectory("rust-lisa-sll");
+		dir.toFile().deleteOnExit();
+		Path file = write(dir, "main.rs", "fn main() {\n    let a = 1;\n    let _b = a + 2 * a;\n}\n");
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			RustCrate twoStage = RustFrontend.processFiles(Arrays.asList(file), executor);
+			RustCrate oneStage = RustFrontend.processFiles(Arrays.asList(file), executor,
+					new RustFrontendOptions().setTwoStageParsing(false));
+
+			assertEquals(0, twoStage.getLLFallbacks());
+			assertEquals(0, oneStage.getLLFallbacks());
+			assertEquals(cfgs(oneStage.getProgram()), cfgs(twoStage.getProgram()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testLLFallback() throws IOException {
+		Path dir = Files.createTempDirectory("rust-lisa-ll");
+		dir.toFile().deleteOnExit();
+		// the stray parenthesis makes the SLL stage bail out
+		Path file = write(dir, "main.rs",
+				"fn main() {\n    let a = 1;\n    if a > 0 {\n        let _b = a;\n    }\n}\n)\n");
+
+		List<Integer> errors = new ArrayList<>();
+		RustFrontendOptions inspected = new RustFrontendOptions()
+				.setParserInspector(parser -> errors.add(parser.getNumberOfSyntaxErrors()));
+		RustCrate twoStage = RustFrontend.processFiles(Arrays.asList(file), Runnable::run, inspected);
+		RustCrate oneStage = RustFrontend.processFiles(Arrays.asList(file), Runnable::run,
+				new RustFrontendOptions().setTwoStageParsing(false));
+
+		// the file is parsed again, with full LL prediction reporting the error
+		assertEquals(1, twoStage.getLLFallbacks());
+		assertEquals(0, oneStage.getLLFallbacks());
+		assertTrue(errors.stream().anyMatch(n -> n > 0));
+		assertEquals(units(oneStage.getProgram()), units(twoStage.getProgram()));
+		assertEquals(bodies(oneStage.getProgram()), bodies(twoStage.getProgram()));
+	}
+
+	/**
+	 * Yields the static types of the expressions and of the formals of the
+	 * CFGs of a program, or of a single CFG.
+	 */
+	private static List<Type> types(Program program) {
+		List<Type> types = new ArrayList<>();
+		for (CFG cfg : program.getAllCFGs())
+			types.addAll(types(cfg));
+		return types;
+	}
+
+	private static List<Type> types(CFG cfg) {
+		List<Type> types = new ArrayList<>();
+		for (Parameter formal : cfg.getDescriptor().getFormals())
+			types.add(formal.getStaticType());
+		for (Statement node : cfg.getNodes())
+			if (node instanceof Expression)
+				types((Expression) node, types);
+		return types;
+	}
+
+	private static boolean interned(Type type) {
+		return type instanceof RustPointerType || type instanceof RustArrayType || type instanceof RustTupleType
+				|| type instanceof RustStructType;
+	}
+
+	private static void types(Expression expression, List<Type> types) {
+		types.add(expression.getStaticType());
+		if (expression instanceof NaryExpression)
+			for (Expression sub : ((NaryExpression) expression).getSubExpressions())
+				types(sub, types);
+	}
+
+	@Test
+	public void testParallelCfgs() throws IOException {
+		Path dir = Files.createTempDirectory("rust-lisa-cfgs");
+		dir.toFile().deleteOnExit();
+		// enough items for the builders to run concurrently, all using the
+		// same composite types
+		StringBuilder source = new StringBuilder("struct Number {\n    num: isize,\n}\n\n");
+		for (int i = 0; i < 64; i++)
+			source.append("fn f").append(i).append("(n: i32) {\n    let x = n;\n    let _p: *const i32 = &x;\n")
+					.append("    let _t: (i32, bool) = (x, true);\n    let _a: [i32; 3] = [x, 1, 2];\n")
+					.append("    let _s = Number { num: 1 };\n}\n\n");
+		Path generated = write(dir, "main.rs", source.toString());
+
+		List<Path> testcases;
+		try (Stream<Path> walk = Files.walk(Paths.get("rust-testcases"))) {
+			testcases = walk.filter(f -> f.toString().endsWith(".rs")).sorted().collect(Collectors.toList());
+		}
+		testcases.add(generated);
+
+		Executor direct = Runnable::run;
+		RustFrontendOptions parallel = new RustFrontendOptions().setParallelCfgs(true);
+		for (Path testcase : testcases) {
+			Program sequential = RustFrontend.processFiles(Arrays.asList(testcase), direct).getProgram();
+			Program concurrent = RustFrontend.processFiles(Arrays.asList(testcase), direct, parallel).getProgram();
+
+			assertEquals(testcase.toString(), units(sequential), units(concurrent));
+			assertEquals(testcase.toString(), bodies(sequential), bodies(concurrent));
+			assertEquals(testcase.toString(), sequential.getRegisteredTypes().size(),
+					concurrent.getRegisteredTypes().size());
+
+			// the types built on the worker threads are the canonical ones of
+			// the registry of the program
+			Set<Type> registered = Collections.newSetFromMap(new IdentityHashMap<>());
+			registered.addAll(concurrent.getRegisteredTypes());
+			for (Type type : types(concurrent))
+				if (interned(type))
+					assertTrue(testcase + ": " + type + " is not canonical", registered.contains(type));
+		}
+	}
+
+	private static UnresolvedCall call(CFG cfg, String name) {
+		return cfg.getNodes().stream()
+				.map(n -> n instanceof RustLetAssignment ? ((RustLetAssignment) n).getRight() : n)
+				.filter(n -> n instanceof UnresolvedCall && ((UnresolvedCall) n).getTargetName().equals(name))
+				.map(UnresolvedCall.class::cast).findFirst().get();
+	}
+
+	private static void assertAt(int line, int col, Expression expression) {
+		SourceCodeLocation location = (SourceCodeLocation) expression.getLocation();
+		assertEquals(expression.toString(), line, location.getLine());
+		assertEquals(expression.toString(), col, location.getCol());
+	}
+
+	@Test
+	public void testMacroArguments() throws IOException {
+		Path dir = Files.createTempDirectory("rust-lisa-macro");
+		dir.toFile().deleteOnExit();
+		// the arguments of vec! are not an expression as a whole
+		Path file = write(dir, "main.rs",
+				"fn main() {\n    println!(\"a,b\", f(x, y));\n    let _v = vec![x, 0; 10];\n}\n");
+
+		PrintStream stderr = System.err;
+		ByteArrayOutputStream errors = new ByteArrayOutputStream();
+		Program program;
+		try {
+			System.setErr(new PrintStream(errors, true, StandardCharsets.UTF_8));
+			program = RustFrontend.processFile(file.toString());
+		} finally {
+			System.setErr(stderr);
+		}
+		assertEquals("", errors.toString(StandardCharsets.UTF_8));
+
+		CFG main = program.getCFGs().iterator().next();
+		Expression[] println = call(main, "println!").getParameters();
+		assertEquals(2, println.length);
+		assertTrue(println[0].toString().contains("a,b"));
+		assertAt(2, 13, println[0]);
+		assertEquals("f", ((UnresolvedCall) println[1]).getTargetName());
+		assertEquals(2, ((UnresolvedCall) println[1]).getParameters().length);
+		assertAt(2, 26, println[1]);
+
+		// the argument that is not an expression keeps its first expression
+		Expression[] vec = call(main, "vec!").getParameters();
+		assertEquals(2, vec.length);
+		assertEquals("x", vec[0].toString());
+		assertAt(3, 18, vec[0]);
+		assertEquals("0", vec[1].toString());
+		assertAt(3, 21, vec[1]);
+	}
+
+	@Test
+	public void testLazyBodies() throws IOException {
+		Path dir = Files.createTempDirectory("rust-lisa-lazy");
+		dir.toFile().deleteOnExit();
+		Path file = write(dir, "main.rs", "struct Number {\n    num: isize,\n}\n\n"
+				+ "impl Number {\n    pub fn zero() {\n        let _x = 0;\n    }\n}\n\n"
+				+ "fn apply(f: fn(i32) -> i32) {\n    let _y = { 1 };\n}\n\n"
+				+ "fn main() {\n    let a = 1;\n    if a > 0 {\n        let _b = a + 2;\n    }\n}\n");
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			RustCrate eager = RustFrontend.processFiles(Arrays.asList(file), executor);
+			RustCrate lazy = RustFrontend.processFiles(Arrays.asList(file), executor,
+					new RustFrontendOptions().setLazyBodies(true));
+
+			assertEquals(0, eager.getBodies().getPending());
+			assertEquals(3, lazy.getBodies().getPending());
+			assertEquals(cfgs(eager.getProgram()), cfgs(lazy.getProgram()));
+
+			CFG main = lazy.getProgram().getCFGs().stream().filter(c -> c.getDescriptor().getName().equals("main"))
+					.findFirst().get();
+			assertTrue(main.getNodes().isEmpty());
+			lazy.getBodies().materialize(main);
+			assertFalse(main.getNodes().isEmpty());
+			assertEquals(2, lazy.getBodies().getPending());
+
+			lazy.getBodies().materializeAll();
+			assertEquals(0, lazy.getBodies().getPending());
+			assertEquals(bodies(eager.getProgram()), bodies(lazy.getProgram()));
+			assertEquals(registered(eager.getProgram()), registered(lazy.getProgram()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testParallelParsing() throws IOException {
+		List<Path> testcases;
+		try (Stream<Path> walk = Files.walk(Paths.get("rust-testcases"))) {
+			testcases = walk.filter(f -> f.toString().endsWith(".rs")).sorted().collect(Collectors.toList());
+		}
+		assertFalse(testcases.isEmpty());
+
+		Executor direct = Runnable::run;
+		RustFrontendOptions parallel = new RustFrontendOptions().setParallelParsing(true);
+		for (Path testcase : testcases) {
+			RustCrate sequential = RustFrontend.processFiles(Arrays.asList(testcase), direct);
+			RustCrate split = RustFrontend.processFiles(Arrays.asList(testcase), direct, parallel);
+
+			assertEquals(testcase.toString(), units(sequential.getProgram()), units(split.getProgram()));
+			assertEquals(testcase.toString(), bodies(sequential.getProgram()), bodies(split.getProgram()));
+		}
+	}
+
+	@Test
+	public void testStreaming() throws IOException {
+		List<Path> testcases;
+		try (Stream<Path> walk = Files.walk(Paths.get("rust-testcases"))) {
+			testcases = walk.filter(f -> f.toString().endsWith(".rs")).sorted().collect(Collectors.toList());
+		}
+		assertFalse(testcases.isEmpty());
+
+		for (Path testcase : testcases) {
+			Program program = RustFrontend.processFile(testcase.toString());
+
+			Program streamed = new Program();
+			RustFrontend.processFile(testcase.toString(), new CfgSink() {
+				@Override
+				public void acceptUnit(CompilationUnit unit) {
+					streamed.addCompilationUnit(unit);
+				}
+
+				@Override
+				public void acceptType(Type type) {
+					streamed.registerType(type);
+				}
+
+				@Override
+				public void acceptCfg(CFG cfg) {
+					// the types of a CFG are received before it
+					assertTrue(types(cfg).stream().allMatch(t -> !interned(t)
+							|| streamed.getRegisteredTypes().contains(t)));
+					// streamed CFGs belong to no unit
+					streamed.addCFG(cfg);
+				}
+			});
+
+			assertEquals(testcase.toString(), units(program), units(streamed));
+			assertEquals(testcase.toString(), bodies(program), bodies(streamed));
+			assertEquals(testcase.toString(), registered(program), registered(streamed));
+		}
+	}
+
+	@Test
+	public void testJoinFreeLowering() throws IOException {
+		List<Path> testcases;
+		try (Stream<Path> walk = Files.walk(Paths.get("rust-testcases"))) {
+			testcases = walk.filter(f -> f.toString().endsWith(".rs")).sorted().collect(Collectors.toList());
+		}
+		assertFalse(testcases.isEmpty());
+
+		// nodes and edges of the lowered CFGs, before they are simplified
+		long[] joins = new long[2];
+		long[] joinFree = new long[2];
+		for (Path testcase : testcases) {
+			Program program = RustFrontend.processFile(testcase.toString(),
+					new RustFrontendOptions().setLoweringInspector(cfg -> {
+						joins[0] += cfg.getNodes().size();
+						joins[1] += cfg.getAdjacencyMatrix().getEdges().size();
+					}));
+			Program lowered = RustFrontend.processFile(testcase.toString(),
+					new RustFrontendOptions().setJoinFreeLowering(true).setLoweringInspector(cfg -> {
+						joinFree[0] += cfg.getNodes().size();
+						joinFree[1] += cfg.getAdjacencyMatrix().getEdges().size();
+					}));
+
+			assertEquals(testcase.toString(), bodies(program), bodies(lowered));
+		}
+
+		assertTrue("Lowered nodes: " + joins[0] + " -> " + joinFree[0], joinFree[0] < joins[0]);
+		assertTrue("Lowered edges: " + joins[1] + " -> " + joinFree[1], joinFree[1] < joins[1]);
+	}
+
+	/**
+	 * Yields the length of the longest chain of guards of a CFG.
+	 */
+	private static int guards(CFG cfg) {
+		Map<Statement, Integer> depths = new HashMap<>();
+		int max = 0;
+		for (Statement node : cfg.getNodes())
+			max = Math.max(max, guards(cfg, node, depths));
+		return max;
+	}
+
+	private static int guards(CFG cfg, Statement node, Map<Statement, Integer> depths) {
+		if (!(node instanceof RustEqualExpression || node instanceof RustLessExpression))
+			return 0;
+		if (!depths.containsKey(node)) {
+			int max = 0;
+			for (Statement next : cfg.getAdjacencyMatrix().followersOf(node))
+				max = Math.max(max, guards(cfg, next, depths));
+			depths.put(node, max + 1);
+		}
+		return depths.get(node);
+	}
+
+	@Test
+	public void testMatchDecisionTree() throws IOException {
+		Path dir = Files.createTempDirectory("rust-lisa-match");
+		dir.toFile().deleteOnExit();
+		StringBuilder source = new StringBuilder("fn main() {\n    let x = 2;\n    match x {\n");
+		for (int i = -4; i < 60; i++)
+			source.append("        " + i + " => { let _y = " + i + "; }\n");
+		source.append("        _ => { let _y = 0; }\n    }\n}\n");
+		Path file = write(dir, "main.rs", source.toString());
+
+		CFG chain = RustFrontend.processFile(file.toString()).getCFGs().iterator().next();
+		CFG tree = RustFrontend.processFile(file.toString(), new RustFrontendOptions().setMatchDecisionTree(true))
+				.getCFGs().iterator().next();
+
+		assertEquals(65, guards(chain));
+		assertEquals(7, guards(tree));
+
+		// matches with if clauses are still lowered to chains
+		for (String testcase : Arrays.asList("rust-testcases/cfg/match-or/match-or.rs",
+				"rust-testcases/cfg/match-if/match-if.rs"))
+			assertEquals(bodies(RustFrontend.processFile(testcase)),
+					bodies(RustFrontend.processFile(testcase, new RustFrontendOptions().setMatchDecisionTree(true))));
+	}
+
+	private static boolean mentions(Program program, String name) {
+		return program.getCFGs().stream().flatMap(cfg -> cfg.getNodes().stream())
+				.anyMatch(node -> node.toString().contains(name));
+	}
+
+	@Test
+	public void testCountedRangeLoops() throws IOException {
+		Path dir = Files.createTempDirectory("rust-lisa-range");
+		dir.toFile().deleteOnExit();
+		Path nested = write(dir, "main.rs", "fn main() {\n    let mut x = 0;\n    for i in 0..10 {\n"
+				+ "        for j in i.. {\n            x += j;\n        }\n    }\n}\n");
+
+		RustFrontendOptions counted = new RustFrontendOptions().setCountedRangeLoops(true);
+		for (String testcase : Arrays.asList("rust-testcases/cfg/for/for.rs",
+				"rust-testcases/cfg/nested-loops/nested-loops.rs", nested.toString())) {
+			Program iterated = RustFrontend.processFile(testcase);
+			Program program = RustFrontend.processFile(testcase, counted);
+
+			assertTrue(testcase, mentions(iterated, "RUSTLISA_FRESH"));
+			assertFalse(testcase, mentions(program, "RUSTLISA_FRESH"));
+			assertTrue(testcase, mentions(program, "RUSTLISA_COUNTER0"));
+		}
+
+		// nested loops keep different counters
+		assertTrue(mentions(RustFrontend.processFile(nested.toString(), counted), "RUSTLISA_COUNTER1"));
+	}
+
+	private static long count(CFG cfg, Class<?> type) {
+		return cfg.getNodes().stream().filter(type::isInstance).count();
+	}
+
+	@Test
+	public void testStaticCalls() throws IOException {
+		Path dir = Files.createTempDirectory("rust-lisa-calls");
+		dir.toFile().deleteOnExit();
+		Path file = write(dir, "main.rs", "struct Number {\n    num: isize,\n}\n\n"
+				+ "impl Number {\n    pub fn zero() {\n        let _x = 0;\n    }\n\n"
+				+ "    pub fn get(&self) -> isize {\n        self.num\n    }\n}\n\n"
+				+ "fn helper(a: i32) {\n    let _z = a;\n}\n\n"
+				+ "fn main() {\n    helper(1);\n    Number::zero();\n    missing(2);\n"
+				+ "    let _n = Number { num: 1 }.get();\n    helper(1, 2);\n    Number::zero(3);\n}\n");
+
+		Program program = RustFrontend.processFile(file.toString());
+		StaticCalls calls = StaticCalls.resolve(program);
+		// calls whose number of arguments matches no function are left
+		assertEquals(3, calls.getResolved());
+		assertEquals(3, calls.getUnresolved());
+
+		CFG main = program.getCFGs().stream().filter(c -> c.getDescriptor().getName().equals("main"))
+				.findFirst().get();
+		assertEquals(2, count(main, CFGCall.class));
+		assertEquals(3, count(main, UnresolvedCall.class));
+		// the receiver of the method call is a struct
+		assertTrue(main.getNodes().stream().anyMatch(
+				n -> n instanceof RustLetAssignment && ((RustLetAssignment) n).getRight() instanceof CFGCall));
+
+		// resolved calls are not resolved again
+		assertEquals(0, StaticCalls.resolve(program).getResolved());
+
+		// receivers of unknown type are left to the analysis
+		Program rectangle = RustFrontend.processFile("rust-testcases/cfg/rectangle/rectangle.rs");
+		calls = StaticCalls.resolve(rectangle);
+		assertEquals(1, calls.getResolved());
+		assertEquals(2, calls.getUnresolved());
+	}
+}
@@ -0,0 +1,137 @@
+package it.unipr.frontend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.program.Program;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.antlr.v4.runtime.tree.Tree;
+import org.junit.Test;
+
+public class RustFrontendFootprintTest {
+
+	private static final String TREE_PACKAGE = "org.antlr.v4.runtime.tree";
+
+	private static final List<String> TESTCASES = Arrays.asList(
+			"rust-testcases/cfg/rectangle/rectangle.rs",
+			"rust-testcases/cfg/macro/macro.rs",
+			"rust-testcases/cfg/mix-and-match/mix-and-match.rs");
+
+	/**
+	 * Yields the parser pools of the front-end, that are reachable from their
+	 * threads rather than from the results.
+	 */
+	private static List<Object> pools() throws ReflectiveOperationException {
+		List<Object> roots = new ArrayList<>();
+		for (Class<?> c : Arrays.asList(RustFrontend.class, RustParsers.class))
+			for (Field f : c.getDeclaredFields())
+				if (Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive()) {
+					f.setAccessible(true);
+					Object value = f.get(null);
+					roots.add(value instanceof ThreadLocal ? ((ThreadLocal<?>) value).get() : value);
+				}
+		return roots;
+	}
+
+	/**
+	 * Walks the objects reachable from the given roots, looking for a part of
+	 * a parse tree.
+	 */
+	private static Object findTree(List<Object> roots) {
+		Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Object> pending = new ArrayDeque<>();
+		roots.forEach(root -> push(pending, root));
+
+		while (!pending.isEmpty()) {
+			Object o = pending.pop();
+			if (!visited.add(o) || o instanceof Class || o instanceof ClassLoader || o instanceof Thread)
+				continue;
+			if (o instanceof Tree || o.getClass().getName().startsWith(TREE_PACKAGE))
+				return o;
+
+			if (o instanceof Object[])
+				for (Object element : (Object[]) o)
+					push(pending, element);
+			else if (o instanceof Collection)
+				((Collection<?>) o).forEach(element -> push(pending, element));
+			else if (o instanceof Map)
+				((Map<?, ?>) o).forEach((key, value) -> {
+					push(pending, key);
+					push(pending, value);
+				});
+			else
+				for (Class<?> c = o.getClass(); c != null; c = c.getSuperclass())
+					for (Field f : c.getDeclaredFields())
+						if (!Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive())
+							try {
+								f.setAccessible(true);
+								push(pending, f.get(o));
+							} catch (RuntimeException | IllegalAccessException e) {
+								// inaccessible internals of the platform
+							}
+		}
+
+		return null;
+	}
+
+	private static void push(Deque<Object> pending, Object o) {
+		if (o != null)
+			pending.push(o);
+	}
+
+	@Test
+	public void testProcessFile() throws IOException, ReflectiveOperationException {
+		for (String testcase : TESTCASES) {
+			List<Object> roots = new ArrayList<>(pools());
+			roots.add(RustFrontend.processFile(testcase));
+			assertNull(testcase, findTree(roots));
+		}
+	}
+
+	@Test
+	public void testLazyCrate() throws IOException, ReflectiveOperationException {
+		List<Path> files = new ArrayList<>();
+		for (String testcase : TESTCASES)
+			files.add(Paths.get(testcase));
+
+		// pending bodies keep their tokens, but not the trees they come from
+		RustCrate crate = RustFrontend.processFiles(files, Runnable::run,
+				new RustFrontendOptions().setLazyBodies(true));
+		assertTrue(crate.getBodies().getPending() > 0);
+
+		List<Object> roots = new ArrayList<>(pools());
+		roots.add(crate);
+		assertNull(findTree(roots));
+
+		crate.getBodies().materializeAll();
+		roots = new ArrayList<>(pools());
+		roots.add(crate);
+		assertNull(findTree(roots));
+	}
+
+	@Test
+	public void testParserInspector() throws IOException {
+		// parsers are reused once inspected
+		List<Integer> errors = new ArrayList<>();
+		Program program = RustFrontend.processFile(TESTCASES.get(0),
+				new RustFrontendOptions().setParserInspector(parser -> errors.add(parser.getNumberOfSyntaxErrors())));
+
+		assertEquals(Arrays.asList(0), errors);
+		assertEquals(RustFrontend.processFile(TESTCASES.get(0)).getCFGs().toString(), program.getCFGs().toString());
+	}
+}
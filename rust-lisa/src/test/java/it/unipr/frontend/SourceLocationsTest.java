@@ -0,0 +1,39 @@
+package it.unipr.frontend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import it.unive.lisa.program.SourceCodeLocation;
+import org.junit.Test;
+
+public class SourceLocationsTest {
+
+	@Test
+	public void testFlyweights() {
+		SourceLocations locations = new SourceLocations("file.rs");
+		SourceCodeLocation location = locations.of(3, 7);
+
+		assertEquals(new SourceCodeLocation("file.rs", 3, 7), location);
+		assertSame(location, locations.of(3, 7));
+		assertNotSame(location, locations.of(7, 3));
+		assertEquals(2, locations.size());
+	}
+
+	@Test
+	public void testGrowth() {
+		SourceLocations locations = new SourceLocations("file.rs");
+		for (int line = 0; line < 100; line++)
+			for (int col = 0; col < 100; col++)
+				locations.of(line, col);
+
+		assertEquals(10_000, locations.size());
+		for (int line = 0; line < 100; line++)
+			for (int col = 0; col < 100; col++) {
+				SourceCodeLocation location = locations.of(line, col);
+				assertEquals(line, location.getLine());
+				assertEquals(col, location.getCol());
+			}
+		assertEquals(10_000, locations.size());
+	}
+}
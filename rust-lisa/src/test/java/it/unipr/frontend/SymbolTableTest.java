@@ -0,0 +1,43 @@
+package it.unipr.frontend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import it.unipr.rust.antlr.RustLexer;
+import java.util.List;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.junit.Test;
+
+public class SymbolTableTest {
+
+	@Test
+	public void testInterning() {
+		SymbolTable symbols = new SymbolTable();
+		String x = symbols.name(new String("x"));
+
+		assertSame(x, symbols.name(new String("x")));
+		assertEquals("y", symbols.name(new String("y")));
+		assertNotSame(x, new SymbolTable().name(new String("x")));
+		assertEquals(2, symbols.size());
+	}
+
+	@Test
+	public void testSharedWithTokens() {
+		SymbolTable symbols = new SymbolTable();
+		String x = symbols.name(new String("x"));
+
+		RustLexer lexer = new RustLexer(CharStreams.fromString("let x = x;"));
+		lexer.setTokenFactory(new CompactTokenFactory(symbols));
+		CommonTokenStream stream = new CommonTokenStream(lexer);
+		stream.fill();
+
+		// identifiers are lexed into the names already in the table
+		List<Token> tokens = stream.getTokens();
+		assertSame(x, tokens.get(1).getText());
+		assertSame(x, tokens.get(3).getText());
+		assertEquals(1, symbols.size());
+	}
+}